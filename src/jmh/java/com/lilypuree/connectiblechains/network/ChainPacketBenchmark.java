@@ -0,0 +1,397 @@
+package com.lilypuree.connectiblechains.network;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Encode and decode throughput of the chain packets that the server sends.
+ * Every benchmark sends the same scene of {@link #links} links, either as a single {@link S2CChainDeltaPacket},
+ * as one {@link S2CFarChainsPacket} for all regions or, as the baseline, in the {@link LegacyChainPackets legacy format}
+ * with one packet per link or knot.
+ * The encode benchmarks also report the average encoded size as {@code bytesPerLink}.
+ * <p>
+ * Run with {@code ./gradlew jmh}, arguments can be passed with {@code -PjmhArgs="..."}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainPacketBenchmark {
+    /**
+     * Knots in fences usually have one or two links, hubs up to a few more.
+     */
+    private static final int MAX_LINKS_PER_KNOT = 4;
+    /**
+     * Entity ids of a server that has been running for a while take three bytes as varint.
+     */
+    private static final int FIRST_ENTITY_ID = 20000;
+    private static final int CHAIN_TYPES = 4;
+
+    /**
+     * A single placement, a fence, a chunk of chains and a large build
+     */
+    @Param({"1", "16", "128", "1024"})
+    public int links;
+
+    /**
+     * The primary, secondary and type of each link, the links of a knot are consecutive
+     */
+    private int[] fromIds, toIds, types;
+    /**
+     * The id and number of links of each knot
+     */
+    private int[] knotIds, linkCounts;
+    /**
+     * Block positions of the primary and secondary of each link as x, y, z triples
+     */
+    private int[] fromPositions, toPositions;
+
+    private S2CChainDeltaPacket attachPacket, detachPacket, relinkPacket;
+    private S2CFarChainsPacket farChainsPacket;
+    private LegacyChainPackets.Attach[] legacyAttachPackets;
+    private LegacyChainPackets.Detach[] legacyDetachPackets;
+    private LegacyChainPackets.MultiAttach[] legacyMultiAttachPackets;
+    private LegacyChainPackets.KnotChangeType[] legacyChangeTypePackets;
+
+    private FriendlyByteBuf buf;
+    private FriendlyByteBuf attachBytes, detachBytes, relinkBytes, farChainsBytes;
+    private FriendlyByteBuf legacyAttachBytes, legacyDetachBytes, legacyMultiAttachBytes, legacyChangeTypeBytes;
+
+    /**
+     * The average encoded size of all invocations of an iteration, reported next to the throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public double bytesPerLink;
+        private long bytes, linkCount;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerLink = 0;
+            bytes = 0;
+            linkCount = 0;
+        }
+
+        void record(int size, int links) {
+            bytes += size;
+            linkCount += links;
+            bytesPerLink = (double) bytes / linkCount;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        createScene(new Random(42));
+
+        attachPacket = new S2CChainDeltaPacket(createAttaches(), new int[0], new int[0]);
+        detachPacket = new S2CChainDeltaPacket(createDetaches(), new int[0], new int[0]);
+        relinkPacket = new S2CChainDeltaPacket(createRelinks(), new int[0], new int[0]);
+        farChainsPacket = createFarChains();
+
+        buf = new FriendlyByteBuf(Unpooled.buffer(links * 64));
+        attachBytes = encode(attachPacket);
+        detachBytes = encode(detachPacket);
+        relinkBytes = encode(relinkPacket);
+        farChainsBytes = new FriendlyByteBuf(Unpooled.buffer());
+        farChainsPacket.toBytes(farChainsBytes);
+
+        createLegacyPackets();
+        legacyAttachBytes = encodeAll(legacyAttachPackets, LegacyChainPackets.Attach::write);
+        legacyDetachBytes = encodeAll(legacyDetachPackets, LegacyChainPackets.Detach::write);
+        legacyMultiAttachBytes = encodeAll(legacyMultiAttachPackets, LegacyChainPackets.MultiAttach::write);
+        legacyChangeTypeBytes = encodeAll(legacyChangeTypePackets, LegacyChainPackets.KnotChangeType::write);
+    }
+
+    /**
+     * Creates knots along a path where most links go to one of the next few blocks, like in fences and bridges.
+     * Knot ids are not contiguous as other entities are spawned in between.
+     */
+    private void createScene(Random random) {
+        fromIds = new int[links];
+        toIds = new int[links];
+        types = new int[links];
+        fromPositions = new int[links * 3];
+        toPositions = new int[links * 3];
+        int[] knots = new int[links];
+        int[] counts = new int[links];
+
+        int knotCount = 0;
+        int id = FIRST_ENTITY_ID;
+        int x = 0, y = 64, z = 0;
+        for (int link = 0; link < links; knotCount++) {
+            id += 1 + random.nextInt(8);
+            x += 1 + random.nextInt(3);
+            y += random.nextInt(3) - 1;
+            z += random.nextInt(3) - 1;
+            int count = Math.min(1 + random.nextInt(MAX_LINKS_PER_KNOT), links - link);
+            int type = random.nextInt(CHAIN_TYPES);
+            knots[knotCount] = id;
+            counts[knotCount] = count;
+            for (int i = 0; i < count; i++, link++) {
+                fromIds[link] = id;
+                toIds[link] = id + 1 + random.nextInt(32);
+                types[link] = type;
+                fromPositions[link * 3] = x;
+                fromPositions[link * 3 + 1] = y;
+                fromPositions[link * 3 + 2] = z;
+                toPositions[link * 3] = x + 1 + random.nextInt(7);
+                toPositions[link * 3 + 1] = y + random.nextInt(5) - 2;
+                toPositions[link * 3 + 2] = z + random.nextInt(7) - 3;
+            }
+        }
+        knotIds = Arrays.copyOf(knots, knotCount);
+        linkCounts = Arrays.copyOf(counts, knotCount);
+    }
+
+    /**
+     * The same scene as it was sent before the delta packet: one attach and detach per link,
+     * one multi attach and knot type change per knot.
+     * The channel header that every one of these packets also paid is not counted.
+     */
+    private void createLegacyPackets() {
+        legacyAttachPackets = new LegacyChainPackets.Attach[links];
+        legacyDetachPackets = new LegacyChainPackets.Detach[links];
+        for (int i = 0; i < links; i++) {
+            legacyAttachPackets[i] = new LegacyChainPackets.Attach(fromIds[i], toIds[i], types[i]);
+            legacyDetachPackets[i] = new LegacyChainPackets.Detach(fromIds[i], toIds[i]);
+        }
+
+        legacyMultiAttachPackets = new LegacyChainPackets.MultiAttach[knotIds.length];
+        legacyChangeTypePackets = new LegacyChainPackets.KnotChangeType[knotIds.length];
+        for (int k = 0, link = 0; k < knotIds.length; link += linkCounts[k], k++) {
+            int[] knotToIds = Arrays.copyOfRange(toIds, link, link + linkCounts[k]);
+            int[] knotTypes = Arrays.copyOfRange(types, link, link + linkCounts[k]);
+            legacyMultiAttachPackets[k] = new LegacyChainPackets.MultiAttach(knotIds[k], knotToIds, knotTypes);
+            legacyChangeTypePackets[k] = new LegacyChainPackets.KnotChangeType(knotIds[k], types[link]);
+        }
+    }
+
+    /**
+     * All links attached in one segment.
+     *
+     * @see S2CChainDeltaPacket
+     */
+    private int[] createAttaches() {
+        IntArrayList changes = new IntArrayList();
+        changes.add(0);
+        changes.add(links);
+        for (int i = 0; i < links; i++) {
+            changes.add(fromIds[i]);
+            changes.add(toIds[i]);
+            changes.add(types[i]);
+        }
+        changes.add(0);
+        return changes.toIntArray();
+    }
+
+    /**
+     * All links detached in one segment.
+     */
+    private int[] createDetaches() {
+        IntArrayList changes = new IntArrayList();
+        changes.add(links);
+        for (int i = 0; i < links; i++) {
+            changes.add(fromIds[i]);
+            changes.add(toIds[i]);
+        }
+        changes.add(0);
+        changes.add(0);
+        return changes.toIntArray();
+    }
+
+    /**
+     * A player held a chain of every knot and attached it to the secondary of the knot's first link.
+     * Every relink ends a segment, so there is one segment per knot.
+     */
+    private int[] createRelinks() {
+        int holderId = FIRST_ENTITY_ID - 1;
+        IntArrayList changes = new IntArrayList();
+        for (int i = 0; i < links; ) {
+            int knot = fromIds[i];
+            int count = 0;
+            while (i + count < links && fromIds[i + count] == knot) count++;
+            changes.add(0);
+            changes.add(0);
+            changes.add(1);
+            changes.add(toIds[i]);
+            changes.add(holderId);
+            changes.add(knot);
+            i += count;
+        }
+        return changes.toIntArray();
+    }
+
+    private S2CFarChainsPacket createFarChains() {
+        Long2ObjectLinkedOpenHashMap<IntArrayList> regions = new Long2ObjectLinkedOpenHashMap<>();
+        for (int i = 0; i < links; i++) {
+            BlockPos from = new BlockPos(fromPositions[i * 3], fromPositions[i * 3 + 1], fromPositions[i * 3 + 2]);
+            IntArrayList segments = regions.computeIfAbsent(FarChainSync.getRegion(from), r -> new IntArrayList());
+            segments.add(from.getX());
+            segments.add(from.getY());
+            segments.add(from.getZ());
+            segments.add(toPositions[i * 3]);
+            segments.add(toPositions[i * 3 + 1]);
+            segments.add(toPositions[i * 3 + 2]);
+            segments.add(types[i]);
+        }
+
+        long[] keys = regions.keySet().toLongArray();
+        int[][] segments = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            segments[i] = regions.get(keys[i]).toIntArray();
+        }
+        return new S2CFarChainsPacket(false, keys, segments);
+    }
+
+    private static FriendlyByteBuf encode(S2CChainDeltaPacket packet) {
+        FriendlyByteBuf out = new FriendlyByteBuf(Unpooled.buffer());
+        packet.toBytes(out);
+        return out;
+    }
+
+    private static <T> FriendlyByteBuf encodeAll(T[] packets, BiConsumer<T, FriendlyByteBuf> encoder) {
+        FriendlyByteBuf out = new FriendlyByteBuf(Unpooled.buffer());
+        for (T packet : packets) {
+            encoder.accept(packet, out);
+        }
+        return out;
+    }
+
+    private int finish(Size size) {
+        size.record(buf.writerIndex(), links);
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeAttach(Size size) {
+        buf.clear();
+        attachPacket.toBytes(buf);
+        return finish(size);
+    }
+
+    @Benchmark
+    public S2CChainDeltaPacket decodeAttach() {
+        attachBytes.readerIndex(0);
+        return new S2CChainDeltaPacket(attachBytes);
+    }
+
+    @Benchmark
+    public int encodeDetach(Size size) {
+        buf.clear();
+        detachPacket.toBytes(buf);
+        return finish(size);
+    }
+
+    @Benchmark
+    public S2CChainDeltaPacket decodeDetach() {
+        detachBytes.readerIndex(0);
+        return new S2CChainDeltaPacket(detachBytes);
+    }
+
+    @Benchmark
+    public int encodeRelink(Size size) {
+        buf.clear();
+        relinkPacket.toBytes(buf);
+        return finish(size);
+    }
+
+    @Benchmark
+    public S2CChainDeltaPacket decodeRelink() {
+        relinkBytes.readerIndex(0);
+        return new S2CChainDeltaPacket(relinkBytes);
+    }
+
+    @Benchmark
+    public int encodeFarChains(Size size) {
+        buf.clear();
+        farChainsPacket.toBytes(buf);
+        return finish(size);
+    }
+
+    @Benchmark
+    public S2CFarChainsPacket decodeFarChains() {
+        farChainsBytes.readerIndex(0);
+        return new S2CFarChainsPacket(farChainsBytes);
+    }
+
+    @Benchmark
+    public int encodeLegacyAttach(Size size) {
+        buf.clear();
+        for (LegacyChainPackets.Attach packet : legacyAttachPackets) {
+            packet.write(buf);
+        }
+        return finish(size);
+    }
+
+    @Benchmark
+    public void decodeLegacyAttach(Blackhole blackhole) {
+        legacyAttachBytes.readerIndex(0);
+        for (int i = 0; i < legacyAttachPackets.length; i++) {
+            blackhole.consume(LegacyChainPackets.Attach.read(legacyAttachBytes));
+        }
+    }
+
+    @Benchmark
+    public int encodeLegacyDetach(Size size) {
+        buf.clear();
+        for (LegacyChainPackets.Detach packet : legacyDetachPackets) {
+            packet.write(buf);
+        }
+        return finish(size);
+    }
+
+    @Benchmark
+    public void decodeLegacyDetach(Blackhole blackhole) {
+        legacyDetachBytes.readerIndex(0);
+        for (int i = 0; i < legacyDetachPackets.length; i++) {
+            blackhole.consume(LegacyChainPackets.Detach.read(legacyDetachBytes));
+        }
+    }
+
+    @Benchmark
+    public int encodeLegacyMultiAttach(Size size) {
+        buf.clear();
+        for (LegacyChainPackets.MultiAttach packet : legacyMultiAttachPackets) {
+            packet.write(buf);
+        }
+        return finish(size);
+    }
+
+    @Benchmark
+    public void decodeLegacyMultiAttach(Blackhole blackhole) {
+        legacyMultiAttachBytes.readerIndex(0);
+        for (int i = 0; i < legacyMultiAttachPackets.length; i++) {
+            blackhole.consume(LegacyChainPackets.MultiAttach.read(legacyMultiAttachBytes));
+        }
+    }
+
+    @Benchmark
+    public int encodeLegacyChangeType(Size size) {
+        buf.clear();
+        for (LegacyChainPackets.KnotChangeType packet : legacyChangeTypePackets) {
+            packet.write(buf);
+        }
+        return finish(size);
+    }
+
+    @Benchmark
+    public void decodeLegacyChangeType(Blackhole blackhole) {
+        legacyChangeTypeBytes.readerIndex(0);
+        for (int i = 0; i < legacyChangeTypePackets.length; i++) {
+            blackhole.consume(LegacyChainPackets.KnotChangeType.read(legacyChangeTypeBytes));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.lilypuree.connectiblechains.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * Frozen copies of the wire format of the link packets that were replaced by {@link S2CChainDeltaPacket}.
+ * They are only kept as the baseline for {@link ChainPacketBenchmark}, do not change their encoding.
+ */
+public final class LegacyChainPackets {
+    private LegacyChainPackets() {
+    }
+
+    /**
+     * One link was created, sent per link.
+     */
+    public record Attach(int fromId, int toId, int chainType) {
+        public static Attach read(FriendlyByteBuf buf) {
+            return new Attach(buf.readVarInt(), buf.readVarInt(), buf.readVarInt());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(fromId);
+            buf.writeVarInt(toId);
+            buf.writeVarInt(chainType);
+        }
+    }
+
+    /**
+     * One link was destroyed, sent per link.
+     */
+    public record Detach(int fromId, int toId) {
+        public static Detach read(FriendlyByteBuf buf) {
+            return new Detach(buf.readVarInt(), buf.readVarInt());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(fromId);
+            buf.writeVarInt(toId);
+        }
+    }
+
+    /**
+     * All links of a knot, sent per knot when a player started tracking it.
+     */
+    public record MultiAttach(int fromId, int[] toIds, int[] types) {
+        public static MultiAttach read(FriendlyByteBuf buf) {
+            return new MultiAttach(buf.readVarInt(), buf.readVarIntArray(), buf.readVarIntArray());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(fromId);
+            buf.writeVarIntArray(toIds);
+            buf.writeVarIntArray(types);
+        }
+    }
+
+    /**
+     * The chain type of a knot changed, sent per knot.
+     */
+    public record KnotChangeType(int knotId, int typeId) {
+        public static KnotChangeType read(FriendlyByteBuf buf) {
+            return new KnotChangeType(buf.readVarInt(), buf.readVarInt());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(knotId);
+            buf.writeVarInt(typeId);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.lilypuree.connectiblechains;
 
+import com.lilypuree.connectiblechains.network.ModPacketHandler;
+import com.lilypuree.connectiblechains.network.S2CConfigSyncPacket;
 import net.minecraft.client.Minecraft;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
 import net.minecraftforge.fml.loading.FMLEnvironment;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.jetbrains.annotations.Nullable;
 
 @Mod.EventBusSubscriber(modid = ConnectibleChains.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class CCConfig {
@@ -13,11 +19,25 @@ public class CCConfig {
 
     public ForgeConfigSpec.DoubleValue chainHangAmount;
     public ForgeConfigSpec.IntValue maxChainRange;
+    public ForgeConfigSpec.BooleanValue syncCollisionEntities;
+    public ForgeConfigSpec.IntValue distantUpdateInterval;
+    public ForgeConfigSpec.IntValue netStatsLogInterval;
+    public ForgeConfigSpec.IntValue farChainDistance;
     public ForgeConfigSpec.IntValue quality;
+    public ForgeConfigSpec.IntValue modelCacheSize;
+    public ForgeConfigSpec.BooleanValue bufferStaticChains;
 
     public static ForgeConfigSpec COMMON_CONFIG;
     public static ForgeConfigSpec CLIENT_CONFIG;
 
+    /**
+     * The values of the server the client is connected to, null in singleplayer or when not connected.
+     */
+    @Nullable
+    private Float serverChainHangAmount;
+    @Nullable
+    private Boolean serverSyncCollisionEntities;
+
     public CCConfig() {
         ForgeConfigSpec.Builder COMMON_BUILDER = new ForgeConfigSpec.Builder();
         ForgeConfigSpec.Builder CLIENT_BUILDER = new ForgeConfigSpec.Builder();
@@ -27,13 +47,38 @@ public class CCConfig {
                 .comment("\r\n Chain Hang Amount\n"
                         + "\r\n Effects how much the chain hangs."
                         + "\r\n Collision will update on new chains or world loading."
-                        + "\r\n  Has no effect in multiplayer."
+                        + "\r\n In multiplayer the value of the server is used."
                 ).defineInRange("chainHangAmount", 9.0f, 0.0f, Double.MAX_VALUE);
         maxChainRange = COMMON_BUILDER
                 .comment("\r\n  Max Chain Distance\n"
                         + "\r\n Warning: Long chains can sometimes become invisible!"
                         + "\r\n Has no effect in multiplayer.")
                 .defineInRange("maxChainRange", 7, 0, 32);
+        syncCollisionEntities = COMMON_BUILDER
+                .comment("\r\n  Sync Collision Entities\n"
+                        + "\r\n When disabled the chain colliders only exist on the server."
+                        + "\r\n Clients reconstruct them from the chain geometry, which saves bandwidth and entities."
+                        + "\r\n Chains can still be attacked and sheared, but they are no longer solid."
+                        + "\r\n Only the server value matters.")
+                .define("syncCollisionEntities", true);
+        distantUpdateInterval = COMMON_BUILDER
+                .comment("\r\n  Distant Update Interval\n"
+                        + "\r\n How many ticks chain changes are collected before they are sent to players"
+                        + "\r\n in the outer half of the tracking range. Nearby players always receive them immediately."
+                        + "\r\n Only the server value matters.")
+                .defineInRange("distantUpdateInterval", 5, 1, 100);
+        netStatsLogInterval = COMMON_BUILDER
+                .comment("\r\n  Network Stats Log Interval\n"
+                        + "\r\n Every how many seconds the chain packet rates are logged, 0 to disable."
+                        + "\r\n The stats can also be shown with /connectiblechains netstats or /connectiblechainsclient netstats.")
+                .defineInRange("netStatsLogInterval", 0, 0, 3600);
+        farChainDistance = COMMON_BUILDER
+                .comment("\r\n  Far Chain Distance\n"
+                        + "\r\n Chains of knots outside the entity tracking range but within this distance are"
+                        + "\r\n sent to players every few seconds and rendered without entities. 0 to disable."
+                        + "\r\n Only loaded knots are sent, so this has no effect beyond the server view distance."
+                        + "\r\n Only the server value matters.")
+                .defineInRange("farChainDistance", 512, 0, 2048);
 
 
         CLIENT_BUILDER.comment("Configurable Chains Client Config");
@@ -41,12 +86,23 @@ public class CCConfig {
                 .comment("\r\n  Chain Quality\n"
                         + "\r\n Effects the visual quality of the chain.")
                 .defineInRange("quality", 4, 1, 9);
+        modelCacheSize = CLIENT_BUILDER
+                .comment("\r\n  Model Cache Size\n"
+                        + "\r\n How many megabytes the baked chain models may use."
+                        + "\r\n The least recently rendered models are removed first.")
+                .defineInRange("modelCacheSize", 16, 1, 512);
+        bufferStaticChains = CLIENT_BUILDER
+                .comment("\r\n  Buffer Static Chains\n"
+                        + "\r\n Experimental: Compiles chains between two knots into one GPU buffer per chunk section."
+                        + "\r\n This makes rendering many chains a lot cheaper, but might not work together with shader mods.")
+                .define("bufferStaticChains", false);
 
         COMMON_CONFIG = COMMON_BUILDER.build();
         CLIENT_CONFIG = CLIENT_BUILDER.build();
     }
 
     public float getChainHangAmount() {
+        if (serverChainHangAmount != null) return serverChainHangAmount;
         return chainHangAmount.get().floatValue();
     }
 
@@ -54,10 +110,69 @@ public class CCConfig {
         return maxChainRange.get();
     }
 
+    public boolean doSyncCollisionEntities() {
+        if (serverSyncCollisionEntities != null) return serverSyncCollisionEntities;
+        return syncCollisionEntities.get();
+    }
+
+    public int getDistantUpdateInterval() {
+        return distantUpdateInterval.get();
+    }
+
+    public int getNetStatsLogInterval() {
+        return netStatsLogInterval.get();
+    }
+
+    public int getFarChainDistance() {
+        return farChainDistance.get();
+    }
+
     public int getQuality() {
         return quality.get();
     }
 
+    public long getModelCacheBytes() {
+        return modelCacheSize.get() * 1024L * 1024L;
+    }
+
+    public boolean doBufferStaticChains() {
+        return bufferStaticChains.get();
+    }
+
+    /**
+     * Replaces the local values of the options that only the server decides.
+     * The client must use the same geometry as the server, otherwise its reconstructed colliders don't match.
+     *
+     * @see com.lilypuree.connectiblechains.network.S2CConfigSyncPacket
+     */
+    public void setServerValues(float chainHangAmount, boolean syncCollisionEntities) {
+        this.serverChainHangAmount = chainHangAmount;
+        this.serverSyncCollisionEntities = syncCollisionEntities;
+    }
+
+    /**
+     * Goes back to the local values, called when the client leaves a server.
+     */
+    public void clearServerValues() {
+        this.serverChainHangAmount = null;
+        this.serverSyncCollisionEntities = null;
+    }
+
+    /**
+     * Sends the new values to all players when the common config of a running server changed.
+     */
+    @SubscribeEvent
+    public static void onConfigReload(ModConfigEvent.Reloading event) {
+        if (event.getConfig().getSpec() != COMMON_CONFIG) return;
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+        server.execute(() -> {
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                ModPacketHandler.sendToPlayer(player, S2CConfigSyncPacket.create());
+            }
+        });
+    }
+
     public boolean doDebugDraw() {
         return IS_DEBUG_ENV && Minecraft.getInstance().options.renderDebug;
     }
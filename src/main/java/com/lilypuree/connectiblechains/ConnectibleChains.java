@@ -3,6 +3,7 @@ package com.lilypuree.connectiblechains;
 import com.lilypuree.connectiblechains.chain.ChainLink;
 import com.lilypuree.connectiblechains.chain.ChainType;
 import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.client.ClientInitializer;
 import com.lilypuree.connectiblechains.compat.BuiltinCompat;
 import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
 import com.lilypuree.connectiblechains.entity.ChainLinkEntity;
@@ -92,7 +93,11 @@ public class ConnectibleChains {
             else if (ChainKnotEntity.getKnotAt(player.level, blockPos) != null && ChainLinkEntity.canDestroyWith(stack)) {
                 event.setCanceled(true);
             }
-            if (event.isCanceled()) event.setCancellationResult(InteractionResult.SUCCESS);
+            if (event.isCanceled()) {
+                event.setCancellationResult(InteractionResult.SUCCESS);
+                // Show the result right away instead of waiting for the server
+                ClientInitializer.chainPredictions.predictUse(player, blockPos, stack);
+            }
             return;
         }
 
@@ -0,0 +1,116 @@
+package com.lilypuree.connectiblechains.chain;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.entity.ChainCollisionEntity;
+import com.lilypuree.connectiblechains.entity.ModEntityTypes;
+import com.lilypuree.connectiblechains.util.Helper;
+import com.mojang.math.Vector3f;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Knots always sit on block centers, so the vector between two knots is an integer offset.
+ * The placement of {@link ChainCollisionEntity collision entities} only depends on that offset and the hang amount,
+ * which allows them to be computed once and then reused for every link with the same geometry.
+ */
+public class ChainCollisionTemplates {
+    /**
+     * The x/z distance between {@link ChainCollisionEntity ChainCollisionEntities}.
+     * A value of 1 means they are "shoulder to shoulder"
+     */
+    private static final float COLLIDER_SPACING = 1.5f;
+    /**
+     * Offsets outside of this range can't be packed into a key. They won't occur with sane configs,
+     * but are still computed, just without caching.
+     */
+    private static final int MAX_OFFSET = 127;
+
+    /**
+     * Maps packed (dx, dy, dz, hang amount) keys to collider positions relative to the primary knot.
+     * The positions are stored as consecutive x, y, z triples.
+     */
+    private static final Long2ObjectOpenHashMap<double[]> TEMPLATES = new Long2ObjectOpenHashMap<>(256);
+
+    /**
+     * Returns the collider positions for a link between two knots, relative to the position of the primary.
+     * The template is computed on the first request and cached for all following ones.
+     *
+     * @param dx The block offset from the primary to the secondary on the x axis
+     * @param dy The block offset from the primary to the secondary on the y axis
+     * @param dz The block offset from the primary to the secondary on the z axis
+     * @return x, y, z triples of collider positions. Must not be modified.
+     */
+    public static double[] get(int dx, int dy, int dz) {
+        float hangAmount = ConnectibleChains.runtimeConfig.getChainHangAmount();
+        if (Math.abs(dx) > MAX_OFFSET || Math.abs(dy) > MAX_OFFSET || Math.abs(dz) > MAX_OFFSET) {
+            return compute(dx, dy, dz);
+        }
+
+        long key = (long) Float.floatToIntBits(hangAmount) << 24 | (dx & 0xFF) << 16 | (dy & 0xFF) << 8 | (dz & 0xFF);
+        synchronized (TEMPLATES) {
+            double[] template = TEMPLATES.get(key);
+            if (template == null) {
+                template = compute(dx, dy, dz);
+                TEMPLATES.put(key, template);
+            }
+            return template;
+        }
+    }
+
+    /**
+     * Places multiple colliders that are equal distance from each other.
+     * Position is the same no matter what if the connection is from A -> B or A <- B.
+     */
+    private static double[] compute(int dx, int dy, int dz) {
+        DoubleArrayList positions = new DoubleArrayList(16 * 3);
+        // Both knots have the same leash offset
+        Vec3 startPos = new Vec3(0, 4.5 / 16f, 0);
+        Vec3 endPos = startPos.add(dx, dy, dz);
+
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        float width = ModEntityTypes.CHAIN_COLLISION.get().getWidth();
+        // step = spacing * √(width^2 + width^2) / distance
+        double step = COLLIDER_SPACING * Math.sqrt(Math.pow(width, 2) * 2) / distance;
+        double v = step;
+        // reserve space for the center collider
+        double centerHoldout = width / distance;
+
+        while (v < 0.5 - centerHoldout) {
+            addPosition(positions, startPos, endPos, v);
+            addPosition(positions, endPos, startPos, v);
+
+            v += step;
+        }
+
+        addPosition(positions, startPos, endPos, 0.5);
+        return positions.toDoubleArray();
+    }
+
+    /**
+     * Computes the position of a collider at {@code v} percent between {@code start} and {@code end}
+     *
+     * @param positions The list to add the position to
+     * @param start     the position at {@code v} = 0
+     * @param end       the position at {@code v} = 1
+     * @param v         percent of the distance
+     */
+    private static void addPosition(DoubleArrayList positions, Vec3 start, Vec3 end, double v) {
+        Vector3f offset = Helper.getChainOffset(start, end);
+        Vec3 startPos = start.add(offset.x(), 0, offset.z());
+        Vec3 endPos = end.add(-offset.x(), 0, -offset.z());
+
+        double distance = startPos.distanceTo(endPos);
+
+        double x = Mth.lerp(v, startPos.x(), endPos.x());
+        double y = startPos.y() + Helper.drip2((v * distance), distance, endPos.y() - startPos.y());
+        double z = Mth.lerp(v, startPos.z(), endPos.z());
+
+        y += -ModEntityTypes.CHAIN_COLLISION.get().getHeight() + 2 / 16f;
+
+        positions.add(x);
+        positions.add(y);
+        positions.add(z);
+    }
+}
@@ -1,36 +1,29 @@
 package com.lilypuree.connectiblechains.chain;
 
 import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.client.ClientInitializer;
 import com.lilypuree.connectiblechains.entity.ChainCollisionEntity;
 import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
 import com.lilypuree.connectiblechains.entity.ModEntityTypes;
-import com.lilypuree.connectiblechains.network.ModPacketHandler;
-import com.lilypuree.connectiblechains.network.S2CChainAttachPacket;
-import com.lilypuree.connectiblechains.network.S2CChainDetachPacket;
+import com.lilypuree.connectiblechains.network.ChainDeltaAccumulator;
 import com.lilypuree.connectiblechains.util.Helper;
-import com.mojang.math.Vector3f;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
-import net.minecraft.core.Vec3i;
+import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityDimensions;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
-import net.minecraftforge.network.PacketDistributor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * A logical representation of the link between a knot and another entity.
@@ -39,12 +32,6 @@ import java.util.stream.Collectors;
  * @author Qendolin
  */
 public class ChainLink {
-    /**
-     * The x/z distance between {@link ChainCollisionEntity ChainCollisionEntities}.
-     * A value of 1 means they are "shoulder to shoulder"
-     */
-    private static final float COLLIDER_SPACING = 1.5f;
-
     /**
      * The de facto owner of this link. It is responsive for managing the link and keeping track of it across saves.
      */
@@ -68,6 +55,32 @@ public class ChainLink {
      * Indicates that no sound should be played when the link is destroyed.
      */
     public boolean removeSilently = false;
+    /**
+     * The level of detail this link was last rendered with, only used on the client.
+     *
+     * @see com.lilypuree.connectiblechains.client.render.entity.ChainRenderer#getLod
+     */
+    public int renderLod = 0;
+    /**
+     * The bounds of the sagging chain between two knots, only used on the client.
+     * Links to other entities move, their bounds are not cached.
+     *
+     * @see com.lilypuree.connectiblechains.client.render.entity.ChainKnotEntityRenderer#getLinkBounds
+     */
+    @Nullable
+    public AABB renderBounds = null;
+    /**
+     * The packed light at both ends of a link between two knots, only used on the client.
+     *
+     * @see com.lilypuree.connectiblechains.client.ChainLightCache
+     */
+    public int renderLight = -1;
+    /**
+     * Whether the link is contained in the buffer of its section, only used on the client.
+     *
+     * @see com.lilypuree.connectiblechains.client.render.entity.ChainSectionRenderer#isBuffered
+     */
+    public boolean renderBuffered = false;
     /**
      * Whether the link exists and is active
      */
@@ -93,6 +106,30 @@ public class ChainLink {
      */
     @Nullable
     public static ChainLink create(@NotNull ChainKnotEntity primary, @NotNull Entity secondary, @NotNull ChainType chainType) {
+        return create(primary, secondary, chainType, true);
+    }
+
+    /**
+     * Moves the secondary end of {@code link} to {@code target} by creating a new link and silently destroying the old one.
+     * The clients are not notified, this has to be done once for all moved links using
+     * {@link ChainDeltaAccumulator#relink(ChainKnotEntity, Entity, List)} on the server.
+     *
+     * @param link   The link to move
+     * @param target The new secondary
+     * @return The new link or null if it already exists, in that case {@code link} is not changed
+     */
+    @Nullable
+    public static ChainLink relink(@NotNull ChainLink link, @NotNull ChainKnotEntity target) {
+        ChainLink newLink = create(link.primary, target, link.chainType, false);
+        if (newLink != null) {
+            link.removeSilently = true;
+            link.destroy(false, false);
+        }
+        return newLink;
+    }
+
+    @Nullable
+    private static ChainLink create(ChainKnotEntity primary, Entity secondary, ChainType chainType, boolean notify) {
         ChainLink link = new ChainLink(primary, secondary, chainType);
         // Prevent multiple links between same targets.
         // Checking on the secondary is not required as the link always exists on both sides.
@@ -103,7 +140,10 @@ public class ChainLink {
             secondaryKnot.addLink(link);
             link.createCollision();
         }
-        if (!primary.level.isClientSide) {
+        if (primary.level.isClientSide) {
+            ClientInitializer.chainPredictions.onLinkCreated(link);
+            ClientInitializer.chainSectionRenderer.onLinkCreated(link);
+        } else if (notify) {
             link.sendAttachChainPacket(primary.level);
         }
         return link;
@@ -113,81 +153,60 @@ public class ChainLink {
     /**
      * Create a collision between this and an entity.
      * It spawns multiple {@link ChainCollisionEntity ChainCollisionEntities} that are equal distance from each other.
-     * Position is the same no matter what if the connection is from A -> B or A <- B.
+     * The positions are taken from {@link ChainCollisionTemplates}.
      */
     private void createCollision() {
         if (!collisionStorage.isEmpty()) return;
         if (primary.level.isClientSide) return;
-
-        double distance = primary.distanceTo(secondary);
-        // step = spacing * ?(width^2 + width^2) / distance
-        double step = COLLIDER_SPACING * Math.sqrt(Math.pow(ModEntityTypes.CHAIN_COLLISION.get().getWidth(), 2) * 2) / distance;
-        double v = step;
-        // reserve space for the center collider
-        double centerHoldout = ModEntityTypes.CHAIN_COLLISION.get().getWidth() / distance;
-
-        while (v < 0.5 - centerHoldout) {
-            Entity collider1 = spawnCollision(false, primary, secondary, v);
-            if (collider1 != null) collisionStorage.add(collider1.getId());
-            Entity collider2 = spawnCollision(true, primary, secondary, v);
-            if (collider2 != null) collisionStorage.add(collider2.getId());
-
-            v += step;
+        if (!(secondary instanceof ChainKnotEntity secondaryKnot)) return;
+
+        BlockPos offset = secondaryKnot.getPos().subtract(primary.getPos());
+        double[] template = ChainCollisionTemplates.get(offset.getX(), offset.getY(), offset.getZ());
+        for (int i = 0; i < template.length; i += 3) {
+            Entity collider = spawnCollision(
+                    primary.getX() + template[i], primary.getY() + template[i + 1], primary.getZ() + template[i + 2]);
+            if (collider != null) collisionStorage.add(collider.getId());
         }
+    }
 
-        Entity centerCollider = spawnCollision(false, primary, secondary, 0.5);
-        if (centerCollider != null) collisionStorage.add(centerCollider.getId());
+    /**
+     * Computes the boxes that the {@link ChainCollisionEntity collision entities} of this link occupy.
+     * This is used by clients that don't receive the collision entities to reconstruct them.
+     *
+     * @return The collider boxes, empty if the secondary is not a knot
+     */
+    public List<AABB> getCollisionBoxes() {
+        if (!(secondary instanceof ChainKnotEntity secondaryKnot)) return Collections.emptyList();
+
+        BlockPos offset = secondaryKnot.getPos().subtract(primary.getPos());
+        double[] template = ChainCollisionTemplates.get(offset.getX(), offset.getY(), offset.getZ());
+        EntityDimensions dimensions = ModEntityTypes.CHAIN_COLLISION.get().getDimensions();
+        List<AABB> boxes = new ArrayList<>(template.length / 3);
+        for (int i = 0; i < template.length; i += 3) {
+            boxes.add(dimensions.makeBoundingBox(
+                    primary.getX() + template[i], primary.getY() + template[i + 1], primary.getZ() + template[i + 2]));
+        }
+        return boxes;
     }
 
     /**
-     * Send a package to all the clients around this entity that notifies them of this link's creation.
+     * Notifies all the clients that track the primary or secondary of this link's creation at the end of the tick.
      */
     private void sendAttachChainPacket(Level world) {
         assert world instanceof ServerLevel;
 
-        Set<ServerPlayer> trackingPlayers = getTrackingPlayers(world);
-
-        S2CChainAttachPacket packet = new S2CChainAttachPacket(primary.getId(), secondary.getId(), ChainTypesRegistry.getKey(chainType));
-
-        for (ServerPlayer player : trackingPlayers) {
-            ModPacketHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), packet);
-        }
+        ChainDeltaAccumulator.INSTANCE.attach(this);
     }
 
 
     /**
-     * Spawns a collider at {@code v} percent between {@code start} and {@code end}
+     * Spawns a collider at the given position
      *
-     * @param reverse Reverse start and end
-     * @param start   the entity at {@code v} = 0
-     * @param end     the entity at {@code v} = 1
-     * @param v       percent of the distance
      * @return {@link ChainCollisionEntity} or null
      */
     @Nullable
-    private Entity spawnCollision(boolean reverse, Entity start, Entity end, double v) {
+    private Entity spawnCollision(double x, double y, double z) {
         assert primary.level instanceof ServerLevel;
-        Vec3 startPos = start.position().add(start.getLeashOffset());
-        Vec3 endPos = end.position().add(end.getLeashOffset());
-
-        Vec3 tmp = endPos;
-        if (reverse) {
-            endPos = startPos;
-            startPos = tmp;
-        }
-
-        Vector3f offset = Helper.getChainOffset(startPos, endPos);
-        startPos = startPos.add(offset.x(), 0, offset.z());
-        endPos = endPos.add(-offset.x(), 0, -offset.z());
-
-        double distance = startPos.distanceTo(endPos);
-
-        double x = Mth.lerp(v, startPos.x(), endPos.x());
-        double y = startPos.y() + Helper.drip2((v * distance), distance, endPos.y() - startPos.y());
-        double z = Mth.lerp(v, startPos.z(), endPos.z());
-
-        y += -ModEntityTypes.CHAIN_COLLISION.get().getHeight() + 2 / 16f;
-
         ChainCollisionEntity c = new ChainCollisionEntity(primary.level, x, y, z, this);
         if (primary.level.addFreshEntity(c)) {
             return c;
@@ -197,29 +216,6 @@ public class ChainLink {
         }
     }
 
-    /**
-     * Finds all players that are in {@code world} and tracking either the primary or secondary.
-     *
-     * @param world the world to search in
-     * @return A set of all players that track the primary or secondary.
-     */
-    private Set<ServerPlayer> getTrackingPlayers(Level world) {
-        assert world instanceof ServerLevel;
-        Set<ServerPlayer> trackingPlayers = new HashSet<>(
-                around((ServerLevel) world, primary.blockPosition(), ChainKnotEntity.VISIBLE_RANGE));
-        trackingPlayers.addAll(
-                around((ServerLevel) world, secondary.blockPosition(), ChainKnotEntity.VISIBLE_RANGE));
-        return trackingPlayers;
-    }
-
-    private Collection<ServerPlayer> around(ServerLevel level, Vec3i pos, double radius) {
-        double radiusSq = radius * radius;
-        Objects.requireNonNull(level, "The world cannot be null");
-
-        return level.players().stream().filter(p -> p.distanceToSqr(pos.getX(), pos.getY(), pos.getZ()) <= radiusSq)
-                .collect(Collectors.toList());
-    }
-
     public boolean isDead() {
         return !alive;
     }
@@ -268,13 +264,21 @@ public class ChainLink {
      * @param mayDrop if an item may drop.
      */
     public void destroy(boolean mayDrop) {
+        destroy(mayDrop, true);
+    }
+
+    private void destroy(boolean mayDrop, boolean notify) {
         if (!alive) return;
 
         boolean drop = mayDrop;
         Level world = primary.level;
         this.alive = false;
 
-        if (world.isClientSide) return;
+        if (world.isClientSide) {
+            ClientInitializer.chainSectionRenderer.onLinkDestroyed(this);
+            ClientInitializer.chainLightCache.forget(this);
+            return;
+        }
 
         if (secondary instanceof Player player && player.isCreative()) drop = false;
         // I think DO_TILE_DROPS makes more sense than DO_ENTITY_DROPS in this case
@@ -293,7 +297,7 @@ public class ChainLink {
         }
 
         destroyCollision();
-        if (!primary.isRemoved() && !secondary.isRemoved())
+        if (notify && !primary.isRemoved() && !secondary.isRemoved())
             sendDetachChainPacket(world);
     }
 
@@ -313,18 +317,11 @@ public class ChainLink {
     }
 
     /**
-     * Send a package to all the clients around this entity that notifies them of this link's destruction.
+     * Notifies all the clients that track the primary or secondary of this link's destruction at the end of the tick.
      */
     private void sendDetachChainPacket(Level world) {
         assert world instanceof ServerLevel;
 
-        Set<ServerPlayer> trackingPlayers = getTrackingPlayers(world);
-
-        // Write both ids so that the client can identify the link
-        S2CChainDetachPacket packet = new S2CChainDetachPacket(primary.getId(), secondary.getId());
-
-        for (ServerPlayer player : trackingPlayers) {
-            ModPacketHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), packet);
-        }
+        ChainDeltaAccumulator.INSTANCE.detach(this);
     }
 }
@@ -33,6 +33,24 @@ public class ChainTypesRegistry {
         return REGISTRY.get().getValue(ResourceLocation.tryParse(id));
     }
 
+    /**
+     * Forge syncs the ids of this registry to the clients when they join, so they can be used as a palette in packets.
+     *
+     * @return The network id of {@code type}
+     */
+    public static int getRawId(ChainType type) {
+        return ((ForgeRegistry<ChainType>) REGISTRY.get()).getID(type);
+    }
+
+    /**
+     * @param rawId A network id from {@link #getRawId(ChainType)}
+     * @return The type with the id or the default type if there is none
+     */
+    public static ChainType getValue(int rawId) {
+        ChainType type = ((ForgeRegistry<ChainType>) REGISTRY.get()).getValue(rawId);
+        return type == null ? DEFAULT_CHAIN_TYPE : type;
+    }
+
     public static Collection<ResourceLocation> getKeys() {
         return REGISTRY.get().getKeys();
     }
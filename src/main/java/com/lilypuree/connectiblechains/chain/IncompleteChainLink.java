@@ -34,16 +34,13 @@ public class IncompleteChainLink {
     }
 
     /**
-     * Tries to complete the chain link by looking for an entity with {@link #secondaryId}.
+     * Completes the chain link, unless it is dead.
      *
-     * @return true if the incomplete chain link should be removed
+     * @param secondary The entity with the {@link #secondaryId}
      */
-    public boolean tryCompleteOrRemove() {
-        if (isDead()) return true;
-        Entity secondary = primary.level.getEntity(secondaryId);
-        if (secondary == null) return false;
+    public void complete(Entity secondary) {
+        if (isDead()) return;
         ChainLink.create(primary, secondary, chainType);
-        return true;
     }
 
     public boolean isDead() {
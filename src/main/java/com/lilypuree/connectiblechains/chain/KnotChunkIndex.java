@@ -0,0 +1,62 @@
+package com.lilypuree.connectiblechains.chain;
+
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the server side knots that have links, grouped by the chunk they are in.
+ * Knots can't move, so the chunk of a knot never changes.
+ */
+public class KnotChunkIndex {
+    private static final Map<ResourceKey<Level>, Long2ObjectMap<List<ChainKnotEntity>>> INDEX = new HashMap<>();
+
+    /**
+     * Adds the knot to the index. This method is idempotent.
+     */
+    public static void add(ChainKnotEntity knot) {
+        if (knot.level.isClientSide || knot.isIndexed()) return;
+        Long2ObjectMap<List<ChainKnotEntity>> chunks = INDEX.computeIfAbsent(knot.level.dimension(), k -> new Long2ObjectOpenHashMap<>());
+        chunks.computeIfAbsent(ChunkPos.asLong(knot.getPos()), k -> new ReferenceArrayList<>(4)).add(knot);
+        knot.setIndexed(true);
+    }
+
+    /**
+     * Removes the knot from the index. This method is idempotent.
+     */
+    public static void remove(ChainKnotEntity knot) {
+        if (knot.level.isClientSide || !knot.isIndexed()) return;
+        knot.setIndexed(false);
+        Long2ObjectMap<List<ChainKnotEntity>> chunks = INDEX.get(knot.level.dimension());
+        if (chunks == null) return;
+        long chunkKey = ChunkPos.asLong(knot.getPos());
+        List<ChainKnotEntity> knots = chunks.get(chunkKey);
+        if (knots == null) return;
+        knots.remove(knot);
+        if (knots.isEmpty()) chunks.remove(chunkKey);
+    }
+
+    /**
+     * @return All chunks of the level with knots that have links, keyed by {@link ChunkPos#toLong()}. Must not be modified.
+     */
+    public static Long2ObjectMap<List<ChainKnotEntity>> getChunks(Level level) {
+        Long2ObjectMap<List<ChainKnotEntity>> chunks = INDEX.get(level.dimension());
+        return chunks == null ? Long2ObjectMaps.emptyMap() : chunks;
+    }
+
+    /**
+     * Drops all entries of a level, used when it is unloaded.
+     */
+    public static void clear(Level level) {
+        INDEX.remove(level.dimension());
+    }
+}
@@ -0,0 +1,120 @@
+package com.lilypuree.connectiblechains.client;
+
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import java.util.Set;
+
+/**
+ * Keeps the light of links between two knots, so that it only has to be sampled again when
+ * the light of a section around one of the ends changed.
+ * The light is stored packed in {@link ChainLink#renderLight}, this class only tracks which links
+ * have to be invalidated for a section.
+ *
+ * @see com.lilypuree.connectiblechains.mixin.client.ClientChunkCacheMixin
+ */
+@OnlyIn(Dist.CLIENT)
+public class ChainLightCache {
+    public static final int INVALID = -1;
+
+    /**
+     * The links with an end in each section, compared by identity.
+     * This includes links whose light is not cached yet because the light of the chunk was not ready.
+     */
+    private final Long2ObjectMap<Set<ChainLink>> sections = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * @return The packed light of {@code link}, sampled now if it isn't cached
+     */
+    public int getLight(Level level, ChainLink link) {
+        if (link.renderLight != INVALID) return link.renderLight;
+
+        BlockPos start = new BlockPos(link.primary.getEyePosition());
+        BlockPos end = new BlockPos(link.secondary.getEyePosition());
+        int light = pack(
+                level.getBrightness(LightLayer.BLOCK, start), level.getBrightness(LightLayer.BLOCK, end),
+                level.getBrightness(LightLayer.SKY, start), level.getBrightness(LightLayer.SKY, end));
+        // Light that was received with a chunk must be present before caching.
+        // Links without it are still tracked so that they are invalidated once the light of the section arrives.
+        if (isLightReady(level, start) && isLightReady(level, end)) {
+            link.renderLight = light;
+        }
+        track(SectionPos.asLong(start), link);
+        track(SectionPos.asLong(end), link);
+        return light;
+    }
+
+    private static boolean isLightReady(Level level, BlockPos pos) {
+        LevelChunk chunk = level.getChunkSource().getChunk(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()), false);
+        return chunk != null && chunk.isClientLightReady();
+    }
+
+    private void track(long section, ChainLink link) {
+        sections.computeIfAbsent(section, s -> new ReferenceOpenHashSet<>()).add(link);
+    }
+
+    /**
+     * Invalidates the light of all links with an end in the section.
+     * Called when the client received or computed new light for the section.
+     */
+    public void onLightUpdate(SectionPos pos) {
+        Set<ChainLink> links = sections.remove(pos.asLong());
+        if (links == null) return;
+        for (ChainLink link : links) {
+            link.renderLight = INVALID;
+            ClientInitializer.chainSectionRenderer.onLightChanged(link);
+        }
+    }
+
+    /**
+     * Stops tracking a link that was destroyed.
+     */
+    public void forget(ChainLink link) {
+        link.renderLight = INVALID;
+        untrack(SectionPos.asLong(new BlockPos(link.primary.getEyePosition())), link);
+        untrack(SectionPos.asLong(new BlockPos(link.secondary.getEyePosition())), link);
+    }
+
+    private void untrack(long section, ChainLink link) {
+        Set<ChainLink> links = sections.get(section);
+        if (links != null && links.remove(link) && links.isEmpty()) {
+            sections.remove(section);
+        }
+    }
+
+    /**
+     * Drops all tracked links, called when the client leaves a level.
+     */
+    public void clear() {
+        sections.clear();
+    }
+
+    public static int pack(int blockLight0, int blockLight1, int skyLight0, int skyLight1) {
+        return blockLight0 << 12 | blockLight1 << 8 | skyLight0 << 4 | skyLight1;
+    }
+
+    public static int getBlockLight0(int light) {
+        return light >> 12 & 15;
+    }
+
+    public static int getBlockLight1(int light) {
+        return light >> 8 & 15;
+    }
+
+    public static int getSkyLight0(int light) {
+        return light >> 4 & 15;
+    }
+
+    public static int getSkyLight1(int light) {
+        return light & 15;
+    }
+}
@@ -0,0 +1,120 @@
+package com.lilypuree.connectiblechains.client;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.entity.ChainLinkEntity;
+import com.lilypuree.connectiblechains.network.C2SChainInteractPacket;
+import com.lilypuree.connectiblechains.network.ModPacketHandler;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.EntityHitResult;
+import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.Tags;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+
+/**
+ * When the server does not sync {@link com.lilypuree.connectiblechains.entity.ChainCollisionEntity collision entities}
+ * the client has nothing to aim at. This class reconstructs the colliders from the link geometry
+ * to allow links to be attacked, sheared and outlined.
+ */
+public class ChainLinkPicker {
+
+    /**
+     * Finds the closest link that the player is looking at.
+     * Nothing will be found when the server syncs collision entities, vanilla picks those,
+     * or when the vanilla hit result is an entity.
+     *
+     * @return The targeted link and where it was hit or null
+     */
+    @Nullable
+    public LinkHit pick(float partialTicks) {
+        if (ConnectibleChains.runtimeConfig.doSyncCollisionEntities()) return null;
+        Minecraft client = Minecraft.getInstance();
+        LocalPlayer player = client.player;
+        if (client.level == null || player == null || client.gameMode == null) return null;
+        if (client.hitResult instanceof EntityHitResult) return null;
+
+        // Same entity reach as GameRenderer.pick
+        double reach = client.gameMode.hasFarPickRange() ? 6 : Math.min(3, client.gameMode.getPickRange());
+        Vec3 eye = player.getEyePosition(partialTicks);
+        Vec3 end = eye.add(player.getViewVector(partialTicks).scale(reach));
+        double closestSq = reach * reach;
+        if (client.hitResult != null && client.hitResult.getType() != HitResult.Type.MISS) {
+            closestSq = Math.min(closestSq, client.hitResult.getLocation().distanceToSqr(eye));
+        }
+
+        LinkHit target = null;
+        AABB searchBox = player.getBoundingBox().inflate(ChainKnotEntity.getMaxRange() + reach);
+        for (ChainKnotEntity knot : client.level.getEntitiesOfClass(ChainKnotEntity.class, searchBox)) {
+            for (ChainLink link : knot.getLinks()) {
+                if (link.primary != knot || link.isDead()) continue;
+                for (AABB box : link.getCollisionBoxes()) {
+                    Optional<Vec3> hit = box.clip(eye, end);
+                    if (hit.isEmpty()) continue;
+                    double distanceSq = hit.get().distanceToSqr(eye);
+                    if (distanceSq < closestSq) {
+                        closestSq = distanceSq;
+                        target = new LinkHit(link, hit.get());
+                    }
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Attacks or uses the targeted link.
+     *
+     * @return true if a link was targeted and the click should be consumed
+     */
+    public boolean onClick(boolean attack, InteractionHand hand) {
+        LocalPlayer player = Minecraft.getInstance().player;
+        if (player == null) return false;
+        if (!attack && !ChainLinkEntity.canDestroyWith(player.getItemInHand(hand))) return false;
+
+        LinkHit target = pick(1f);
+        if (target == null) return false;
+
+        ChainLink link = target.link();
+        ModPacketHandler.sendToServer(new C2SChainInteractPacket(link.primary.getId(), link.secondary.getId(), target.location(), attack, hand));
+        return true;
+    }
+
+    /**
+     * Outlines the colliders of the targeted link while the player is holding shears.
+     *
+     * @see ClientInitializer#checkCollisionEntityWithinRenderDistance
+     */
+    public void renderOutline(PoseStack matrices, float partialTicks) {
+        Minecraft client = Minecraft.getInstance();
+        if (client.player == null || !client.player.isHolding(item -> item.is(Tags.Items.SHEARS))) return;
+        LinkHit target = pick(partialTicks);
+        if (target == null) return;
+
+        Vec3 camera = client.gameRenderer.getMainCamera().getPosition();
+        MultiBufferSource.BufferSource buffers = client.renderBuffers().bufferSource();
+        VertexConsumer buffer = buffers.getBuffer(RenderType.lines());
+        for (AABB box : target.link().getCollisionBoxes()) {
+            LevelRenderer.renderLineBox(matrices, buffer, box.move(-camera.x, -camera.y, -camera.z), 0, 0, 0, 0.4f);
+        }
+        buffers.endBatch(RenderType.lines());
+    }
+
+    /**
+     * @param link     The targeted link
+     * @param location The point where the reconstructed collider was hit
+     */
+    public record LinkHit(ChainLink link, Vec3 location) {
+    }
+}
@@ -6,22 +6,38 @@ import com.lilypuree.connectiblechains.chain.ChainType;
 import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
 import com.lilypuree.connectiblechains.chain.IncompleteChainLink;
 import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
-import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import net.minecraft.client.Minecraft;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+
 public class ChainPacketHandler {
     /**
-     * Links where this is the primary and the secondary doesn't yet exist / hasn't yet loaded.
-     * They are kept in a separate list to prevent accidental accesses of the secondary which would
-     * result in a NPE. The links will try to be completed each world tick.
+     * When there are more incomplete links than this, dead ones are swept right away and a warning is logged.
+     * Links with a live primary are never dropped, the server sends them only once.
+     */
+    private static final int MAX_INCOMPLETE_LINKS = 4096;
+
+    /**
+     * Links where the secondary doesn't yet exist / hasn't yet loaded, grouped by the secondary id.
+     * They are kept separately to prevent accidental accesses of the secondary which would
+     * result in a NPE. The links are completed when the secondary joins the level.
      */
-    private final ObjectList<IncompleteChainLink> incompleteLinks = new ObjectArrayList<>(256);
+    private final Int2ObjectMap<List<IncompleteChainLink>> incompleteLinks = new Int2ObjectOpenHashMap<>();
+    private int incompleteLinkCount = 0;
+    /**
+     * The count at which {@link #addIncompleteLink} sweeps and warns, raised while many live links are waiting
+     */
+    private int sweepThreshold = MAX_INCOMPLETE_LINKS;
+    private int ticks = 0;
 
     /**
      * Will create links from the entity with the id {@code fromId} to multiple targets.
@@ -30,25 +46,37 @@ public class ChainPacketHandler {
      * @param toIds  Secondary entity ids
      * @param typeIds  Link type raw ids
      */
-    public void createLinks(int fromId, int[] toIds, List<ResourceLocation> typeIds) {
+    public void createLinks(int fromId, int[] toIds, int[] typeIds) {
         Minecraft client = Minecraft.getInstance();
         if (client.level == null) return;
         Entity from = client.level.getEntity(fromId);
         if (from instanceof ChainKnotEntity knot) {
-            for (int i = 0; i < toIds.length; i++) {
-                Entity to = client.level.getEntity(toIds[i]);
-                ChainType chainType = ChainTypesRegistry.getValue(typeIds.get(i));
-                if (to == null) {
-                    incompleteLinks.add(new IncompleteChainLink(knot, toIds[i], chainType));
-                } else {
-                    ChainLink.create(knot, to, chainType);
-                }
-            }
+            createLinks(knot, toIds, typeIds);
         } else {
             logBadActionTarget("attach from", from, fromId, "chain knot");
         }
     }
 
+    /**
+     * Will create links from {@code knot} to multiple targets.
+     * Used for the links that are sent with the spawn data of the knot.
+     *
+     * @param knot    Primary entity
+     * @param toIds   Secondary entity ids
+     * @param typeIds Link type raw ids
+     */
+    public void createLinks(ChainKnotEntity knot, int[] toIds, int[] typeIds) {
+        for (int i = 0; i < toIds.length; i++) {
+            Entity to = knot.level.getEntity(toIds[i]);
+            ChainType chainType = ChainTypesRegistry.getValue(typeIds[i]);
+            if (to == null) {
+                addIncompleteLink(new IncompleteChainLink(knot, toIds[i], chainType));
+            } else {
+                ChainLink.create(knot, to, chainType);
+            }
+        }
+    }
+
     public void removeLink(int fromId, int toId) {
         Level level = Minecraft.getInstance().level;
         if (level == null) return;
@@ -57,8 +85,8 @@ public class ChainPacketHandler {
 
         if (from instanceof ChainKnotEntity knot) {
             if (to == null) {
-                for (IncompleteChainLink link : incompleteLinks) {
-                    if (link.primary == from && link.secondaryId == toId) {
+                for (IncompleteChainLink link : incompleteLinks.getOrDefault(toId, Collections.emptyList())) {
+                    if (link.primary == from) {
                         link.destroy();
                     }
                 }
@@ -74,7 +102,61 @@ public class ChainPacketHandler {
         }
     }
 
-    public void changeKnotType(int knotId, ResourceLocation typeId){
+    /**
+     * Moves the links from multiple knots to the holder to the target knot.
+     * The moved links are collected first, so that all of them are swapped in a single pass.
+     *
+     * @param targetId   The new secondary entity id
+     * @param holderId   The old secondary entity id, usually a player
+     * @param primaryIds Primary entity ids
+     * @see com.lilypuree.connectiblechains.network.ChainDeltaAccumulator#relink
+     */
+    public void relink(int targetId, int holderId, int[] primaryIds) {
+        Level level = Minecraft.getInstance().level;
+        if (level == null) return;
+        Entity target = level.getEntity(targetId);
+        if (target != null && !(target instanceof ChainKnotEntity)) {
+            logBadActionTarget("relink to", target, targetId, "chain knot");
+            return;
+        }
+
+        List<ChainLink> moved = new ObjectArrayList<>(primaryIds.length);
+        List<IncompleteChainLink> movedIncomplete = new ObjectArrayList<>();
+        List<IncompleteChainLink> waitingForHolder = incompleteLinks.getOrDefault(holderId, Collections.emptyList());
+        for (int primaryId : primaryIds) {
+            if (!(level.getEntity(primaryId) instanceof ChainKnotEntity knot)) continue;
+            for (ChainLink link : knot.getLinks()) {
+                if (link.primary == knot && link.secondary.getId() == holderId && !link.isDead()) {
+                    moved.add(link);
+                }
+            }
+            // The holder may not exist on this client, then the links are still waiting for it
+            for (IncompleteChainLink link : waitingForHolder) {
+                if (link.primary == knot && !link.isDead()) {
+                    movedIncomplete.add(link);
+                }
+            }
+        }
+
+        for (ChainLink link : moved) {
+            if (target instanceof ChainKnotEntity targetKnot) {
+                if (ChainLink.relink(link, targetKnot) == null) link.destroy(false);
+            } else {
+                link.destroy(false);
+                addIncompleteLink(new IncompleteChainLink(link.primary, targetId, link.chainType));
+            }
+        }
+        for (IncompleteChainLink link : movedIncomplete) {
+            link.destroy();
+            if (target != null) {
+                ChainLink.create(link.primary, target, link.chainType);
+            } else {
+                addIncompleteLink(new IncompleteChainLink(link.primary, targetId, link.chainType));
+            }
+        }
+    }
+
+    public void changeKnotType(int knotId, int typeId){
         Entity entity = Minecraft.getInstance().level.getEntity(knotId);
         ChainType chainType = ChainTypesRegistry.getValue(typeId);
         if (entity instanceof ChainKnotEntity knot) {
@@ -90,12 +172,68 @@ public class ChainPacketHandler {
         ));
     }
 
+    private void addIncompleteLink(IncompleteChainLink link) {
+        if (incompleteLinkCount >= sweepThreshold) {
+            removeDeadIncompleteLinks();
+            if (incompleteLinkCount >= sweepThreshold) {
+                ConnectibleChains.LOGGER.warn("{} chain links are waiting for their secondary to arrive", incompleteLinkCount);
+                sweepThreshold = incompleteLinkCount * 2;
+            }
+        }
+        incompleteLinks.computeIfAbsent(link.secondaryId, id -> new ObjectArrayList<>(2)).add(link);
+        incompleteLinkCount++;
+    }
+
+    /**
+     * Removes incomplete links that were destroyed or whose primary was removed from the level.
+     */
+    private void removeDeadIncompleteLinks() {
+        ObjectIterator<List<IncompleteChainLink>> iterator = incompleteLinks.values().iterator();
+        while (iterator.hasNext()) {
+            List<IncompleteChainLink> links = iterator.next();
+            Iterator<IncompleteChainLink> linkIterator = links.iterator();
+            while (linkIterator.hasNext()) {
+                if (linkIterator.next().isDead()) {
+                    linkIterator.remove();
+                    incompleteLinkCount--;
+                }
+            }
+            if (links.isEmpty()) iterator.remove();
+        }
+        if (incompleteLinkCount < MAX_INCOMPLETE_LINKS) sweepThreshold = MAX_INCOMPLETE_LINKS;
+    }
+
+    /**
+     * Called when an entity joins the client level.
+     * Completes all links that were waiting for it.
+     */
+    public void onEntityJoin(Entity entity) {
+        if (incompleteLinks.isEmpty()) return;
+        List<IncompleteChainLink> links = incompleteLinks.remove(entity.getId());
+        if (links == null) return;
+        incompleteLinkCount -= links.size();
+        for (IncompleteChainLink link : links) {
+            link.complete(entity);
+        }
+    }
+
     /**
      * Called on every client tick.
-     * Tries to complete all links.
-     * Completed links or links that are no longer valid because the primary is dead are removed.
+     * Once per second, links that are no longer valid because the primary is dead are removed.
      */
     public void tick() {
-        incompleteLinks.removeIf(IncompleteChainLink::tryCompleteOrRemove);
+        ticks++;
+        if (ticks % 20 == 0 && !incompleteLinks.isEmpty()) {
+            removeDeadIncompleteLinks();
+        }
+    }
+
+    /**
+     * Drops all incomplete links, called when the client leaves a level.
+     */
+    public void clear() {
+        incompleteLinks.clear();
+        incompleteLinkCount = 0;
+        sweepThreshold = MAX_INCOMPLETE_LINKS;
     }
 }
@@ -0,0 +1,167 @@
+package com.lilypuree.connectiblechains.client;
+
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.chain.ChainType;
+import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.client.render.entity.DetachedChainRenderer;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.PlayerInfo;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Links that the client expects the server to create after using a chain or held chains on a block.
+ * They are rendered right away and removed when the real link arrives or when they expire,
+ * which happens when the server rejected the interaction.
+ *
+ * @see com.lilypuree.connectiblechains.ConnectibleChains#chainUseEvent
+ */
+public class ChainPredictions {
+    /**
+     * Predictions are kept for at least this many ticks, plus the round trip time.
+     */
+    private static final int MIN_LIFETIME = 10;
+    private static final int MAX_LIFETIME = 100;
+
+    private final Int2ObjectMap<Prediction> predictions = new Int2ObjectLinkedOpenHashMap<>();
+    private final DetachedChainRenderer renderer = new DetachedChainRenderer();
+    private int nextId = 0;
+    private int ticks = 0;
+
+    /**
+     * Predicts the outcome of {@link ChainKnotEntity#interact} on a knot at {@code pos},
+     * including the case where the server has to create the knot first.
+     *
+     * @param player The local player
+     * @param pos    The position of the knot
+     * @param stack  The item in the hand that was used
+     */
+    public void predictUse(Player player, BlockPos pos, ItemStack stack) {
+        ChainKnotEntity knot = ChainKnotEntity.getKnotAt(player.level, pos);
+
+        // 1. Held chains are moved to the knot
+        List<ChainLink> heldLinks = ChainKnotEntity.getHeldChainsInRange(player, pos);
+        heldLinks.removeIf(link -> link.primary == knot || link.isDead());
+        if (!heldLinks.isEmpty()) {
+            for (ChainLink link : heldLinks) {
+                add(link.primary.getPos(), pos, link.chainType, link);
+            }
+            return;
+        }
+
+        // 2. Clicking a knot twice cancels the held link
+        if (knot != null && knot.getLinks().stream().anyMatch(link -> link.secondary == player)) return;
+
+        // 3. A new link to the player is created
+        ChainType chainType = ChainTypesRegistry.ITEM_CHAIN_TYPES.get(stack.getItem());
+        if (chainType != null) {
+            add(pos, null, chainType, null);
+        }
+    }
+
+    private void add(BlockPos from, @Nullable BlockPos to, ChainType chainType, @Nullable ChainLink hiddenLink) {
+        int id = nextId++;
+        predictions.put(id, new Prediction(id, from, to, chainType, ticks + getLifetime(), hiddenLink));
+    }
+
+    /**
+     * @return The number of ticks until a prediction expires, based on the latency to the server.
+     */
+    private static int getLifetime() {
+        Minecraft client = Minecraft.getInstance();
+        int latency = 0;
+        if (client.player != null && client.getConnection() != null) {
+            PlayerInfo info = client.getConnection().getPlayerInfo(client.player.getUUID());
+            if (info != null) latency = info.getLatency();
+        }
+        return Math.min(MIN_LIFETIME + latency * 2 / 50, MAX_LIFETIME);
+    }
+
+    /**
+     * Called whenever a link is created on the client. Confirms the predictions of this link.
+     */
+    public void onLinkCreated(ChainLink link) {
+        if (predictions.isEmpty()) return;
+        BlockPos from = link.primary.getPos();
+        predictions.values().removeIf(prediction -> {
+            if (!prediction.from.equals(from)) return false;
+            if (prediction.to == null) return link.secondary == Minecraft.getInstance().player;
+            return link.secondary instanceof ChainKnotEntity knot && knot.getPos().equals(prediction.to);
+        });
+    }
+
+    /**
+     * @return true if the link is about to be moved by a prediction and should not be rendered.
+     */
+    public boolean isHidden(ChainLink link) {
+        if (predictions.isEmpty()) return false;
+        for (Prediction prediction : predictions.values()) {
+            if (prediction.hiddenLink == link) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes expired predictions, called every client tick.
+     */
+    public void tick() {
+        ticks++;
+        if (!predictions.isEmpty()) {
+            predictions.values().removeIf(prediction -> prediction.expiryTick < ticks);
+        }
+    }
+
+    public void render(PoseStack matrices, float partialTicks) {
+        Minecraft client = Minecraft.getInstance();
+        if (predictions.isEmpty() || client.level == null || client.player == null) return;
+        renderer.beginFrame();
+
+        Vec3 camera = client.gameRenderer.getMainCamera().getPosition();
+        MultiBufferSource.BufferSource buffers = client.renderBuffers().bufferSource();
+        for (Prediction prediction : predictions.values()) {
+            Vec3 srcPos = getLeashPos(prediction.from);
+            if (prediction.to == null) {
+                Vec3 dstPos = client.player.getRopeHoldPosition(partialTicks);
+                renderer.render(matrices, buffers, client.level, camera, srcPos, dstPos, prediction.chainType, false);
+            } else {
+                renderer.render(matrices, buffers, client.level, camera, srcPos, getLeashPos(prediction.to), prediction.chainType, true);
+            }
+        }
+        buffers.endBatch();
+    }
+
+    /**
+     * @return The position where a knot at {@code pos} holds chains
+     * @see ChainKnotEntity#getRopeHoldPosition(float)
+     */
+    private static Vec3 getLeashPos(BlockPos pos) {
+        return Vec3.atCenterOf(pos).add(0, 4.5 / 16f, 0);
+    }
+
+    /**
+     * Drops all predictions, called when the client leaves a level.
+     */
+    public void clear() {
+        predictions.clear();
+        renderer.purge();
+    }
+
+    /**
+     * @param from       Position of the primary knot
+     * @param to         Position of the secondary knot or null when it is the local player
+     * @param hiddenLink The held link that is replaced by this prediction
+     */
+    private record Prediction(int id, BlockPos from, @Nullable BlockPos to, ChainType chainType, int expiryTick,
+                              @Nullable ChainLink hiddenLink) {
+    }
+}
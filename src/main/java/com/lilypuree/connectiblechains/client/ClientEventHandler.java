@@ -1,8 +1,22 @@
 package com.lilypuree.connectiblechains.client;
 
 import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.network.NetworkStats;
+import com.lilypuree.connectiblechains.client.render.entity.ChainRenderType;
+import com.lilypuree.connectiblechains.client.render.entity.ChainRenderer;
+import com.lilypuree.connectiblechains.network.NetworkStatsCommand;
+import net.minecraft.client.Minecraft;
 import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.InputEvent;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.client.event.RenderLevelLastEvent;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -10,9 +24,100 @@ import net.minecraftforge.fml.common.Mod;
 public class ClientEventHandler {
     @SubscribeEvent
     public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
         ClientInitializer.chainPacketHandler.tick();
+        ClientInitializer.chainPredictions.tick();
+        ClientInitializer.chainSectionRenderer.tick();
+        // In singleplayer the server already logs the shared stats
+        if (!Minecraft.getInstance().hasSingleplayerServer() && Minecraft.getInstance().getConnection() != null) {
+            NetworkStats.tickLog();
+        }
     }
 
+    @SubscribeEvent
+    public static void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) return;
+        if (Minecraft.getInstance().level != null) {
+            ChainRenderType.setupDiffuseLight(Minecraft.getInstance().level);
+        }
+        ChainRenderer chainRenderer = ClientInitializer.getChainRenderer();
+        if (chainRenderer != null) {
+            chainRenderer.beginFrame();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoinWorld(EntityJoinWorldEvent event) {
+        if (event.getWorld().isClientSide) {
+            ClientInitializer.chainPacketHandler.onEntityJoin(event.getEntity());
+            if (event.getEntity() instanceof ChainKnotEntity knot) {
+                ClientInitializer.farChainCache.onKnotTracked(knot);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeaveWorld(EntityLeaveWorldEvent event) {
+        if (event.getWorld().isClientSide && event.getEntity() instanceof ChainKnotEntity knot) {
+            ClientInitializer.farChainCache.onKnotUntracked(knot);
+        }
+    }
 
+    @SubscribeEvent
+    public static void onRespawn(ClientPlayerNetworkEvent.RespawnEvent event) {
+        ClientInitializer.farChainCache.clear();
+    }
 
+    @SubscribeEvent
+    public static void onLoggedOut(ClientPlayerNetworkEvent.LoggedOutEvent event) {
+        ConnectibleChains.runtimeConfig.clearServerValues();
+        ClientInitializer.chainPacketHandler.clear();
+        ClientInitializer.chainPredictions.clear();
+        ClientInitializer.farChainCache.clear();
+        ClientInitializer.chainSectionRenderer.clear();
+        ClientInitializer.chainLightCache.clear();
+    }
+
+    /**
+     * Fired when the client changes dimension or disconnects.
+     */
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld().isClientSide()) {
+            ClientInitializer.purgeChainModels();
+            ClientInitializer.farChainCache.clear();
+            ClientInitializer.chainSectionRenderer.clear();
+            ClientInitializer.chainLightCache.clear();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onDebugText(RenderGameOverlayEvent.Text event) {
+        if (!Minecraft.getInstance().options.renderDebug) return;
+        ChainRenderer chainRenderer = ClientInitializer.getChainRenderer();
+        if (chainRenderer != null) {
+            event.getRight().add(chainRenderer.getCacheInfo());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRegisterClientCommands(RegisterClientCommandsEvent event) {
+        NetworkStatsCommand.register(event.getDispatcher(), ConnectibleChains.MODID + "client", 0);
+    }
+
+    @SubscribeEvent
+    public static void onClickInput(InputEvent.ClickInputEvent event) {
+        if (!event.isAttack() && !event.isUseItem()) return;
+        if (ClientInitializer.chainLinkPicker.onClick(event.isAttack(), event.getHand())) {
+            event.setSwingHand(true);
+            event.setCanceled(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRenderLevelLast(RenderLevelLastEvent event) {
+        ClientInitializer.farChainCache.render(event.getPoseStack());
+        ClientInitializer.chainPredictions.render(event.getPoseStack(), event.getPartialTick());
+        ClientInitializer.chainLinkPicker.renderOutline(event.getPoseStack(), event.getPartialTick());
+    }
 }
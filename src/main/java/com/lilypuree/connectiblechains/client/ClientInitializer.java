@@ -3,6 +3,9 @@ package com.lilypuree.connectiblechains.client;
 import com.lilypuree.connectiblechains.ConnectibleChains;
 import com.lilypuree.connectiblechains.client.render.entity.ChainCollisionEntityRenderer;
 import com.lilypuree.connectiblechains.client.render.entity.ChainKnotEntityRenderer;
+import com.lilypuree.connectiblechains.client.render.entity.ChainRenderType;
+import com.lilypuree.connectiblechains.client.render.entity.ChainRenderer;
+import com.lilypuree.connectiblechains.client.render.entity.ChainSectionRenderer;
 import com.lilypuree.connectiblechains.client.render.entity.ChainTextureManager;
 import com.lilypuree.connectiblechains.client.render.entity.model.ChainKnotEntityModel;
 import com.lilypuree.connectiblechains.entity.ChainCollisionEntity;
@@ -11,13 +14,18 @@ import com.lilypuree.connectiblechains.util.Helper;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.model.geom.ModelLayerLocation;
 import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.EntityRenderersEvent;
 import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.client.event.RegisterShadersEvent;
 import net.minecraftforge.common.Tags;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
 
 @Mod.EventBusSubscriber(value = Dist.CLIENT, modid = ConnectibleChains.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class ClientInitializer {
@@ -26,9 +34,19 @@ public class ClientInitializer {
     public static final ChainTextureManager textureManager = new ChainTextureManager();
     protected static ChainKnotEntityRenderer chainKnotEntityRenderer;
     public static ChainPacketHandler chainPacketHandler;
+    public static ChainLinkPicker chainLinkPicker;
+    public static ChainPredictions chainPredictions;
+    public static FarChainCache farChainCache;
+    public static ChainSectionRenderer chainSectionRenderer;
+    public static ChainLightCache chainLightCache;
 
     static {
         chainPacketHandler = new ChainPacketHandler();
+        chainLinkPicker = new ChainLinkPicker();
+        chainPredictions = new ChainPredictions();
+        farChainCache = new FarChainCache();
+        chainSectionRenderer = new ChainSectionRenderer();
+        chainLightCache = new ChainLightCache();
     }
 
     @SubscribeEvent
@@ -47,10 +65,41 @@ public class ClientInitializer {
 
     @SubscribeEvent
     public static void onClientConfigReload(ModConfigEvent.Reloading event) {
+        purgeChainModels();
+        chainSectionRenderer.invalidate();
+    }
+
+    /**
+     * Drops the baked models of the knot renderer, for example when the level is unloaded.
+     */
+    public static void purgeChainModels() {
         if (chainKnotEntityRenderer != null)
             chainKnotEntityRenderer.getChainRenderer().purge();
     }
 
+    /**
+     * Applies the values of the server, the chains are rebuilt with the new geometry.
+     * In singleplayer the local config already is the server config.
+     */
+    public static void onServerConfig(float chainHangAmount, boolean syncCollisionEntities) {
+        if (!Minecraft.getInstance().hasSingleplayerServer()) {
+            ConnectibleChains.runtimeConfig.setServerValues(chainHangAmount, syncCollisionEntities);
+        }
+        purgeChainModels();
+        chainSectionRenderer.invalidate();
+    }
+
+    @Nullable
+    public static ChainRenderer getChainRenderer() {
+        return chainKnotEntityRenderer == null ? null : chainKnotEntityRenderer.getChainRenderer();
+    }
+
+    @SubscribeEvent
+    public static void onRegisterShaders(RegisterShadersEvent event) throws IOException {
+        event.registerShader(new ShaderInstance(event.getResourceManager(), Helper.identifier("rendertype_chain"), ChainRenderType.CHAIN_FORMAT),
+                ChainRenderType::setShader);
+    }
+
     @SubscribeEvent
     public static void onRegisterReloadListener(RegisterClientReloadListenersEvent event) {
         event.registerReloadListener(textureManager);
@@ -0,0 +1,120 @@
+package com.lilypuree.connectiblechains.client;
+
+import com.lilypuree.connectiblechains.chain.ChainType;
+import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.client.render.entity.DetachedChainRenderer;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.network.FarChainSync;
+import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Chains of knots that the client doesn't track, received from {@link FarChainSync}.
+ * They are rendered with simplified geometry and without any entities.
+ * <p>
+ * The server only sends a region again when its content changed, so the segments are kept as received.
+ * Segments of knots that the client tracks are skipped while rendering instead.
+ */
+public class FarChainCache {
+    private final Long2ObjectMap<Region> regions = new Long2ObjectOpenHashMap<>();
+    /**
+     * The block positions of all knots that exist on the client, see {@link BlockPos#asLong()}
+     */
+    private final LongSet trackedKnots = new LongOpenHashSet();
+    private final DetachedChainRenderer renderer = new DetachedChainRenderer(1);
+
+    /**
+     * Replaces the segments of the given regions.
+     *
+     * @see com.lilypuree.connectiblechains.network.S2CFarChainsPacket
+     */
+    public void apply(boolean reset, long[] regionKeys, int[][] segments) {
+        if (reset) clear();
+        for (int i = 0; i < regionKeys.length; i++) {
+            if (segments[i].length == 0) {
+                regions.remove(regionKeys[i]);
+            } else {
+                regions.put(regionKeys[i], new Region(segments[i]));
+            }
+        }
+    }
+
+    /**
+     * Hides the segments of a knot that is now tracked and rendered as an entity.
+     */
+    public void onKnotTracked(ChainKnotEntity knot) {
+        trackedKnots.add(knot.getPos().asLong());
+    }
+
+    /**
+     * Shows the segments of a knot again, once the server sends them.
+     */
+    public void onKnotUntracked(ChainKnotEntity knot) {
+        trackedKnots.remove(knot.getPos().asLong());
+    }
+
+    public void render(PoseStack matrices) {
+        Minecraft client = Minecraft.getInstance();
+        if (regions.isEmpty() || client.level == null) return;
+        renderer.beginFrame();
+
+        Vec3 camera = client.gameRenderer.getMainCamera().getPosition();
+        double maxDistance = client.gameRenderer.getRenderDistance() + FarChainSync.REGION_SIZE;
+        MultiBufferSource.BufferSource buffers = client.renderBuffers().bufferSource();
+        for (Long2ObjectMap.Entry<Region> entry : regions.long2ObjectEntrySet()) {
+            double regionX = (FarChainSync.getRegionX(entry.getLongKey()) + 0.5) * FarChainSync.REGION_SIZE - camera.x;
+            double regionZ = (FarChainSync.getRegionZ(entry.getLongKey()) + 0.5) * FarChainSync.REGION_SIZE - camera.z;
+            if (regionX * regionX + regionZ * regionZ > maxDistance * maxDistance) continue;
+
+            Region region = entry.getValue();
+            int[] segments = region.segments;
+            for (int s = 0, i = 0; s < segments.length; s += FarChainSync.SEGMENT_SIZE, i++) {
+                if (trackedKnots.contains(BlockPos.asLong(segments[s], segments[s + 1], segments[s + 2]))) continue;
+                Vec3 srcPos = getLeashPos(segments[s], segments[s + 1], segments[s + 2]);
+                Vec3 dstPos = getLeashPos(segments[s + 3], segments[s + 4], segments[s + 5]);
+                renderer.render(matrices, buffers, client.level, camera, srcPos, dstPos, region.types[i], true);
+            }
+        }
+        buffers.endBatch();
+    }
+
+    /**
+     * @see ChainKnotEntity#getRopeHoldPosition(float)
+     */
+    private static Vec3 getLeashPos(int x, int y, int z) {
+        return new Vec3(x + 0.5, y + 0.5 + 4.5 / 16f, z + 0.5);
+    }
+
+    /**
+     * Drops all far chains, called when the client leaves a level or respawns.
+     * The server sends all regions again in both cases.
+     */
+    public void clear() {
+        regions.clear();
+        trackedKnots.clear();
+        renderer.purge();
+    }
+
+    private static class Region {
+        final int[] segments;
+        /**
+         * The resolved chain type of each segment
+         */
+        final ChainType[] types;
+
+        Region(int[] segments) {
+            this.segments = segments;
+            this.types = new ChainType[segments.length / FarChainSync.SEGMENT_SIZE];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = ChainTypesRegistry.getValue(segments[i * FarChainSync.SEGMENT_SIZE + 6]);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ package com.lilypuree.connectiblechains.client.render.entity;
 import com.lilypuree.connectiblechains.ConnectibleChains;
 import com.lilypuree.connectiblechains.chain.ChainLink;
 import com.lilypuree.connectiblechains.chain.ChainType;
+import com.lilypuree.connectiblechains.client.ChainLightCache;
 import com.lilypuree.connectiblechains.client.ClientInitializer;
 import com.lilypuree.connectiblechains.client.render.entity.model.ChainKnotEntityModel;
 import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
@@ -41,11 +42,13 @@ import net.minecraft.network.chat.TextComponent;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.decoration.HangingEntity;
-import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
@@ -65,8 +68,19 @@ import java.util.List;
  */
 @OnlyIn(Dist.CLIENT)
 public class ChainKnotEntityRenderer extends EntityRenderer<ChainKnotEntity> {
+    /**
+     * Frustum checks use a slightly larger box, the chain is wider than its center line.
+     */
+    private static final double CHAIN_BOUNDS_MARGIN = 0.25;
+
     private final ChainKnotEntityModel<ChainKnotEntity> model;
     private final ChainRenderer chainRenderer = new ChainRenderer();
+    /**
+     * The frustum of the current frame. {@link #render} has no access to it, but the
+     * level renderer always calls {@link #shouldRender} with the same frustum right before.
+     */
+    @Nullable
+    private Frustum frustum;
 
     public ChainKnotEntityRenderer(EntityRendererProvider.Context context) {
         super(context);
@@ -77,22 +91,54 @@ public class ChainKnotEntityRenderer extends EntityRenderer<ChainKnotEntity> {
         return chainRenderer;
     }
 
+    /**
+     * A knot is rendered when it or the bounds of one of its links are visible.
+     */
     @Override
     public boolean shouldRender(ChainKnotEntity entity, Frustum frustum, double x, double y, double z) {
+        this.frustum = frustum;
         if (entity.noCulling) return true;
+        if (super.shouldRender(entity, frustum, x, y, z)) return true;
         for (ChainLink link : entity.getLinks()) {
-            if (link.primary != entity) continue;
-            if (link.secondary instanceof Player) return true;
-            else if (link.secondary.shouldRender(x, y, z)) return true;
+            if (link.primary != entity || link.isDead()) continue;
+            if (!link.secondary.shouldRender(x, y, z)) continue;
+            if (frustum.isVisible(getLinkBounds(link))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The box that contains the whole link, including the lowest point of the sag.
+     * Bounds of links between knots are cached as they can't move.
+     */
+    public static AABB getLinkBounds(ChainLink link) {
+        if (link.secondary instanceof HangingEntity) {
+            if (link.renderBounds == null) {
+                link.renderBounds = computeLinkBounds(link.primary.position().add(link.primary.getLeashOffset()),
+                        link.secondary.position().add(link.secondary.getLeashOffset()));
+            }
+            return link.renderBounds;
+        }
+        return computeLinkBounds(link.primary.position().add(link.primary.getLeashOffset()), link.secondary.getRopeHoldPosition(1));
+    }
+
+    private static AABB computeLinkBounds(Vec3 srcPos, Vec3 dstPos) {
+        double sag = 0;
+        double dx = dstPos.x - srcPos.x, dz = dstPos.z - srcPos.z;
+        // Vertical chains don't sag
+        if (dx * dx + dz * dz > 1.0E-6) {
+            sag = Helper.drip2Min(srcPos.distanceTo(dstPos), dstPos.y - srcPos.y);
         }
-        return super.shouldRender(entity, frustum, x, y, z);
+        return new AABB(srcPos, dstPos)
+                .expandTowards(0, Math.min(0, srcPos.y + sag - Math.min(srcPos.y, dstPos.y)), 0)
+                .inflate(CHAIN_BOUNDS_MARGIN);
     }
 
 
     @Override
     public void render(ChainKnotEntity chainKnotEntity, float yaw, float partialTicks, PoseStack matrices, MultiBufferSource vertexConsumers, int light) {
-        // Render the knot
-        if (chainKnotEntity.shouldRenderKnot()) {
+        // Render the knot, unless only some of its links are visible
+        if (chainKnotEntity.shouldRenderKnot() && (frustum == null || frustum.isVisible(chainKnotEntity.getBoundingBoxForCulling()))) {
             matrices.pushPose();
             Vec3 leashOffset = chainKnotEntity.getRopeHoldPosition(partialTicks).subtract(chainKnotEntity.getPosition(partialTicks));
             matrices.translate(leashOffset.x, leashOffset.y + 6.5 / 16f, leashOffset.z);
@@ -107,6 +153,11 @@ public class ChainKnotEntityRenderer extends EntityRenderer<ChainKnotEntity> {
         List<ChainLink> links = chainKnotEntity.getLinks();
         for (ChainLink link : links) {
             if (link.primary != chainKnotEntity || link.isDead()) continue;
+            if (frustum != null && !frustum.isVisible(getLinkBounds(link))) continue;
+            // A predicted relink is rendered instead
+            if (ClientInitializer.chainPredictions.isHidden(link)) continue;
+            // Rendered from the section buffer instead
+            if (ChainSectionRenderer.isBuffered(link)) continue;
             this.renderChainLink(link, partialTicks, matrices, vertexConsumers);
             if (ConnectibleChains.runtimeConfig.doDebugDraw()) {
                 this.drawDebugVector(matrices, chainKnotEntity, link.secondary, vertexConsumers.getBuffer(RenderType.LINES));
@@ -177,27 +228,29 @@ public class ChainKnotEntityRenderer extends EntityRenderer<ChainKnotEntity> {
         matrices.translate(leashOffset.x, leashOffset.y, leashOffset.z);
 
         ChainType chainType = link.chainType;
-        // Some further performance improvements can be made here:
-        // Create a rendering layer that:
-        // - does not have normals
-        // - does not have an overlay
-        // - does not have vertex color
-        // - uses a tri strp instead of quads
-        VertexConsumer buffer = vertexConsumerProvider.getBuffer(RenderType.entityCutoutNoCull(chainType.getChainTexture()));
-        if (ConnectibleChains.runtimeConfig.doDebugDraw()) {
-            buffer = vertexConsumerProvider.getBuffer(RenderType.lines());
-        }
+        VertexConsumer buffer = vertexConsumerProvider.getBuffer(ChainRenderType.chain(chainType.getChainTexture()));
 
         Vector3f offset = Helper.getChainOffset(srcPos, dstPos);
         matrices.translate(offset.x(), 0, offset.z());
 
         // Now we gather light information for the chain. Since the chain is lighter if there is more light.
-        BlockPos blockPosOfStart = new BlockPos(fromEntity.getEyePosition(tickDelta));
-        BlockPos blockPosOfEnd = new BlockPos(toEntity.getEyePosition(tickDelta));
-        int blockLightLevelOfStart = fromEntity.level.getBrightness(LightLayer.BLOCK, blockPosOfStart);
-        int blockLightLevelOfEnd = toEntity.level.getBrightness(LightLayer.BLOCK, blockPosOfEnd);
-        int skylightLevelOfStart = fromEntity.level.getBrightness(LightLayer.SKY, blockPosOfStart);
-        int skylightLevelOfEnd = fromEntity.level.getBrightness(LightLayer.SKY, blockPosOfEnd);
+        // Links between knots keep their light until it changes, the others are sampled every frame.
+        int blockLightLevelOfStart, blockLightLevelOfEnd, skylightLevelOfStart, skylightLevelOfEnd;
+        if (toEntity instanceof HangingEntity) {
+            int light = ClientInitializer.chainLightCache.getLight(fromEntity.level, link);
+            blockLightLevelOfStart = ChainLightCache.getBlockLight0(light);
+            blockLightLevelOfEnd = ChainLightCache.getBlockLight1(light);
+            skylightLevelOfStart = ChainLightCache.getSkyLight0(light);
+            skylightLevelOfEnd = ChainLightCache.getSkyLight1(light);
+        } else {
+            Level level = fromEntity.level;
+            BlockPos blockPosOfStart = new BlockPos(fromEntity.getEyePosition(tickDelta));
+            BlockPos blockPosOfEnd = new BlockPos(toEntity.getEyePosition(tickDelta));
+            blockLightLevelOfStart = level.getBrightness(LightLayer.BLOCK, blockPosOfStart);
+            blockLightLevelOfEnd = level.getBrightness(LightLayer.BLOCK, blockPosOfEnd);
+            skylightLevelOfStart = level.getBrightness(LightLayer.SKY, blockPosOfStart);
+            skylightLevelOfEnd = level.getBrightness(LightLayer.SKY, blockPosOfEnd);
+        }
 
         Vec3 startPos = srcPos.add(offset.x(), 0, offset.z());
         Vec3 endPos = dstPos.add(-offset.x(), 0, -offset.z());
@@ -207,8 +260,12 @@ public class ChainKnotEntityRenderer extends EntityRenderer<ChainKnotEntity> {
         matrices.mulPose(Quaternion.fromXYZ(0, angleY, 0));
 
         if (toEntity instanceof HangingEntity) {
-            ChainRenderer.BakeKey key = new ChainRenderer.BakeKey(fromEntity.position(), toEntity.position());
-            chainRenderer.renderBaked(buffer, matrices, key, chainVec, blockLightLevelOfStart, blockLightLevelOfEnd, skylightLevelOfStart, skylightLevelOfEnd);
+            Vec3 camera = this.entityRenderDispatcher.camera.getPosition();
+            double dx = (srcPos.x + dstPos.x) / 2 - camera.x, dy = (srcPos.y + dstPos.y) / 2 - camera.y, dz = (srcPos.z + dstPos.z) / 2 - camera.z;
+            link.renderLod = ChainRenderer.getLod(link.renderLod, dx * dx + dy * dy + dz * dz);
+
+            long key = ChainRenderer.bakeKey(fromEntity.position(), toEntity.position());
+            chainRenderer.renderBaked(buffer, matrices, key, link.renderLod, chainVec, blockLightLevelOfStart, blockLightLevelOfEnd, skylightLevelOfStart, skylightLevelOfEnd);
         } else {
             chainRenderer.render(buffer, matrices, chainVec, blockLightLevelOfStart, blockLightLevelOfEnd, skylightLevelOfStart, skylightLevelOfEnd);
         }
@@ -18,30 +18,37 @@ package com.lilypuree.connectiblechains.client.render.entity;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
-import com.mojang.math.Matrix3f;
 import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector3f;
-import net.minecraft.client.renderer.LightTexture;
-import net.minecraft.client.renderer.texture.OverlayTexture;
-import net.minecraft.util.Mth;
-
-import java.util.ArrayList;
-import java.util.List;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
 
 /**
- * The geometry is baked (converted to an efficient format) into vertex and uv arrays.
+ * The geometry is baked (converted to an efficient format) into a single interleaved array.
  * This prevents having to recalculate the model every frame.
+ * <p>
+ * Every vertex consists of {@link #STRIDE} floats: x, y, z, u, v and the light factor,
+ * which is 0 at the start and 1 at the end of the chain.
+ * The model consists of two faces, each is a triangle strip. The first and last vertex of each face are stored twice,
+ * so that the strips of many models can be written into one buffer without connecting them.
  */
-public record ChainModel(float[] vertices, float[] uvs) {
+public record ChainModel(float[] data) {
+    public static final int STRIDE = 6;
 
     public static Builder builder(int initialCapacity) {
         return new Builder(initialCapacity);
     }
 
+    /**
+     * @return The approximate memory used by this model
+     */
+    public long sizeInBytes() {
+        return data.length * 4L;
+    }
+
     /**
      * Writes the model data to {@code buffer} and applies lighting.
      *
-     * @param buffer   The target buffer.
+     * @param buffer   The target buffer, it has to use {@link ChainRenderType#CHAIN_FORMAT}.
      * @param matrices The transformation stack
      * @param bLight0  Block-light at the start.
      * @param bLight1  Block-light at the end.
@@ -50,71 +57,74 @@ public record ChainModel(float[] vertices, float[] uvs) {
      */
     public void render(VertexConsumer buffer, PoseStack matrices, int bLight0, int bLight1, int sLight0, int sLight1) {
         Matrix4f modelMatrix = matrices.last().pose();
-        Matrix3f normalMatrix = matrices.last().normal();
-        int count = vertices.length / 3;
-        for (int i = 0; i < count; i++) {
-            // divide by 2 because chain has 2 face sets
-            @SuppressWarnings({"IntegerDivisionInFloatingPointContext"})
-            float f = (i % (count/2)) / (float) (count/2);
-            int blockLight = (int) Mth.lerp(f, (float) bLight0, (float) bLight1);
-            int skyLight = (int) Mth.lerp(f, (float) sLight0, (float) sLight1);
-            int light = LightTexture.pack(blockLight, skyLight);
-            buffer
-                    .vertex(modelMatrix, vertices[i*3], vertices[i*3+1] , vertices[i*3+2])
-                    .color(255, 255, 255, 255)
-                    .uv(uvs[i*2], uvs[i*2+1])
-                    .overlayCoords(OverlayTexture.NO_OVERLAY)
+        int bLightDelta = bLight1 - bLight0, sLightDelta = sLight1 - sLight0;
+        for (int i = 0; i < data.length; i += STRIDE) {
+            float f = data[i + 5];
+            // Same as LightTexture.pack
+            int light = (int) (bLight0 + f * bLightDelta) << 4 | (int) (sLight0 + f * sLightDelta) << 20;
+            buffer.vertex(modelMatrix, data[i], data[i + 1], data[i + 2])
+                    .uv(data[i + 3], data[i + 4])
                     .uv2(light)
-                    // trial and error magic values that change the overall brightness of the chain
-                    .normal(normalMatrix, 0, 0.35f, 0)
                     .endVertex();
         }
     }
 
 
     public static class Builder {
-        private final List<Float> vertices;
-        private final List<Float> uvs;
+        /**
+         * Vertices without the light factor, which is only known once a face is complete
+         */
+        private final FloatArrayList vertices;
         private int size;
+        private int pendingElements;
 
         public Builder(int initialCapacity) {
-            vertices = new ArrayList<>(initialCapacity*3);
-            uvs = new ArrayList<>(initialCapacity*2);
+            vertices = new FloatArrayList(initialCapacity * 5);
         }
 
         public Builder vertex(Vector3f v) {
             vertices.add(v.x());
             vertices.add(v.y());
             vertices.add(v.z());
+            pendingElements += 3;
             return this;
         }
 
         public Builder uv(float u, float v) {
-            uvs.add(u);
-            uvs.add(v);
+            vertices.add(u);
+            vertices.add(v);
+            pendingElements += 2;
             return this;
         }
 
         public void next() {
+            if (pendingElements != 5) throw new AssertionError("Vertex needs a position and uv");
+            pendingElements = 0;
             size++;
         }
 
+        /**
+         * @return The model, with both faces made of the vertices that were added in order
+         */
         public ChainModel build() {
-            if(vertices.size() != size*3) throw new AssertionError("Wrong count of vertices");
-            if(uvs.size() != size*2) throw new AssertionError("Wrong count of uvs");
-
-            return new ChainModel(toFloatArray(vertices), toFloatArray(uvs));
-        }
-
-        private float[] toFloatArray(List<Float> floats) {
-            float[] array = new float[floats.size()];
-            int i = 0;
-
-            for (float f : floats) {
-                array[i++] = f;
+            if (size % 2 != 0) throw new AssertionError("Both faces need the same amount of vertices");
+            int faceSize = size / 2;
+            // Every segment adds two vertices
+            float segments = Math.max(1, faceSize / 2 - 1);
+
+            float[] data = new float[(size + 4) * STRIDE];
+            int offset = 0;
+            for (int face = 0; face < 2; face++) {
+                int start = face * faceSize;
+                for (int j = -1; j <= faceSize; j++) {
+                    // The first and last vertex are repeated to create the degenerate triangles
+                    int vertex = Math.min(Math.max(j, 0), faceSize - 1);
+                    vertices.getElements(start * 5 + vertex * 5, data, offset, 5);
+                    data[offset + 5] = vertex / 2 / segments;
+                    offset += STRIDE;
+                }
             }
-
-            return array;
+            return new ChainModel(data);
         }
     }
 }
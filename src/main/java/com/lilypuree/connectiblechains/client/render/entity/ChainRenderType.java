@@ -0,0 +1,90 @@
+package com.lilypuree.connectiblechains.client.render.entity;
+
+import com.google.common.collect.ImmutableMap;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import net.minecraft.Util;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.ShaderInstance;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * A render type for chains that only has position, texture and light per vertex and uses triangle strips.
+ * Color, overlay and normal are the same for every vertex of a chain, so the {@code rendertype_chain} shader
+ * applies them as constants instead.
+ * <p>
+ * This class only extends {@link RenderType} to access the protected render state shards.
+ *
+ * @see ChainModel#render
+ */
+@OnlyIn(Dist.CLIENT)
+public class ChainRenderType extends RenderType {
+    /**
+     * 24 bytes per vertex instead of the 36 of {@link DefaultVertexFormat#NEW_ENTITY}.
+     */
+    public static final VertexFormat CHAIN_FORMAT = new VertexFormat(ImmutableMap.of(
+            "Position", DefaultVertexFormat.ELEMENT_POSITION,
+            "UV0", DefaultVertexFormat.ELEMENT_UV0,
+            "UV2", DefaultVertexFormat.ELEMENT_UV2));
+    /**
+     * The y component of the normal that chains used to have, it changes the overall brightness.
+     */
+    private static final float NORMAL_Y = 0.35f;
+    /**
+     * The result of {@code minecraft_mix_light} for the constant normal, with the lights of
+     * {@link com.mojang.blaze3d.platform.Lighting#setupLevel} and {@link com.mojang.blaze3d.platform.Lighting#setupNetherLevel}.
+     * The normal points straight up, so only the y components of the normalized light directions matter.
+     */
+    private static final float LEVEL_DIFFUSE_LIGHT = mixLight(1 / (float) Math.sqrt(1.53), 1 / (float) Math.sqrt(1.53));
+    private static final float NETHER_DIFFUSE_LIGHT = mixLight(1 / (float) Math.sqrt(1.53), -1 / (float) Math.sqrt(1.53));
+
+    @Nullable
+    private static ShaderInstance chainShader;
+    private static final ShaderStateShard CHAIN_SHADER = new ShaderStateShard(() -> chainShader);
+
+    private static final Function<ResourceLocation, RenderType> CHAIN = Util.memoize(texture -> create(
+            "connectiblechains:chain", CHAIN_FORMAT, VertexFormat.Mode.TRIANGLE_STRIP, 256, false, false,
+            CompositeState.builder()
+                    .setShaderState(CHAIN_SHADER)
+                    .setTextureState(new TextureStateShard(texture, false, false))
+                    .setTransparencyState(NO_TRANSPARENCY)
+                    .setCullState(NO_CULL)
+                    .setLightmapState(LIGHTMAP)
+                    .createCompositeState(false)));
+
+    private ChainRenderType(String name, VertexFormat format, VertexFormat.Mode mode, int bufferSize,
+                            boolean affectsCrumbling, boolean sortOnUpload, Runnable setupState, Runnable clearState) {
+        super(name, format, mode, bufferSize, affectsCrumbling, sortOnUpload, setupState, clearState);
+    }
+
+    public static RenderType chain(ResourceLocation texture) {
+        return CHAIN.apply(texture);
+    }
+
+    public static void setShader(ShaderInstance shader) {
+        chainShader = shader;
+    }
+
+    /**
+     * Updates the brightness of the chains for the current dimension, called every frame.
+     */
+    public static void setupDiffuseLight(Level level) {
+        if (chainShader == null) return;
+        boolean nether = level.effects().constantAmbientLight();
+        chainShader.safeGetUniform("DiffuseLight").set(nether ? NETHER_DIFFUSE_LIGHT : LEVEL_DIFFUSE_LIGHT);
+    }
+
+    /**
+     * Same as {@code minecraft_mix_light} in {@code minecraft:shaders/include/light.glsl}.
+     */
+    private static float mixLight(float light0Y, float light1Y) {
+        float lightAccum = Math.max(0, light0Y * NORMAL_Y) + Math.max(0, light1Y * NORMAL_Y);
+        return Math.min(1, lightAccum * 0.6f + 0.4f);
+    }
+}
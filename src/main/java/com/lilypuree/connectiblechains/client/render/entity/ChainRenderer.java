@@ -23,11 +23,16 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.math.Quaternion;
 import com.mojang.math.Vector3f;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.Util;
 import net.minecraft.world.phys.Vec3;
-import net.minecraftforge.common.ForgeHooks;
-import net.minecraftforge.common.ForgeMod;
-import net.minecraftforge.fml.loading.FMLEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static com.lilypuree.connectiblechains.util.Helper.drip2;
 import static com.lilypuree.connectiblechains.util.Helper.drip2prime;
@@ -43,66 +48,286 @@ public class ChainRenderer {
      * This is to prevent extreme lag and the possibility of an infinite loop.
      */
     private static final int MAX_SEGMENTS = 2048;
+    /**
+     * Fixed point steps per block of the {@link #bakeKey} components.
+     */
+    private static final int BAKE_KEY_PRECISION = 256;
+    /**
+     * How many models may be built on the render thread per frame.
+     * All other missing models are built by the worker pool and a placeholder is rendered in the meantime.
+     */
+    private static final int MAX_SYNC_BUILDS_PER_FRAME = 4;
+    /**
+     * Level of detail with the configured quality.
+     */
+    public static final int LOD_FULL = 0;
+    /**
+     * Level of detail with half the configured quality.
+     */
+    public static final int LOD_REDUCED = 1;
+    /**
+     * Level of detail with a single straight segment.
+     */
+    public static final int LOD_STRAIGHT = 2;
+    /**
+     * The distances in blocks at which chains switch to the next lower level of detail.
+     */
+    private static final double[] LOD_DISTANCES = {24, 56};
+    /**
+     * How far the distance has to be past a LOD boundary before the level of detail changes.
+     * This prevents chains from switching back and forth at the boundary.
+     */
+    private static final double LOD_HYSTERESIS = 4;
+    /**
+     * The level of detail is stored in the upper bits of the cache key, see {@link #bakeKey}.
+     */
+    private static final int LOD_KEY_SHIFT = 61;
+    /**
+     * Mask of the height difference in the bake key, it ends below the {@link #LOD_KEY_SHIFT level of detail bits}.
+     */
+    private static final long BAKE_KEY_Y_MASK = (1L << LOD_KEY_SHIFT - 32) - 1;
     /**
      * The geometry of a chain only depends on the vector from the source to the destination.
      * The rotation/direction and translation of the chain do not matter as they are accounted for during rendering.
+     * The map is in access order, the least recently rendered model is evicted first when the cache is full.
+     */
+    private final Long2ObjectLinkedOpenHashMap<ChainModel> models = new Long2ObjectLinkedOpenHashMap<>(256);
+    /**
+     * The sum of {@link ChainModel#sizeInBytes()} of all cached models
+     */
+    private long cachedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    /**
+     * Keys of models that are being built by the worker pool
+     */
+    private final LongSet pending = new LongOpenHashSet();
+    /**
+     * Models built by the worker pool, they are added to the cache at the start of the next frame
+     */
+    private final Queue<BakeResult> baked = new ConcurrentLinkedQueue<>();
+    /**
+     * Incremented when the cache is purged, results of older generations are dropped
+     */
+    private int generation = 0;
+    private int syncBuildsLeft = MAX_SYNC_BUILDS_PER_FRAME;
+    /**
+     * The quality used by this renderer or 0 to use the configured quality.
+     */
+    private final int fixedQuality;
+
+    public ChainRenderer() {
+        this(0);
+    }
+
+    /**
+     * @param fixedQuality The quality to use instead of the configured one, for example for far away chains
+     */
+    public ChainRenderer(int fixedQuality) {
+        this.fixedQuality = fixedQuality;
+    }
+
+    private int getQuality(int lod) {
+        int quality = fixedQuality > 0 ? fixedQuality : ConnectibleChains.runtimeConfig.getQuality();
+        return lod == LOD_FULL ? quality : Math.max(1, quality / 2);
+    }
+
+    /**
+     * Picks the level of detail for a chain. The level only changes when the distance is
+     * more than {@link #LOD_HYSTERESIS} past a boundary, so the previous level has to be known.
+     *
+     * @param lastLod    The level of detail that the chain was last rendered with
+     * @param distanceSq The squared distance from the camera to the chain
+     * @return The new level of detail
+     */
+    public static int getLod(int lastLod, double distanceSq) {
+        int lod = lastLod;
+        while (lod < LOD_STRAIGHT && distanceSq > square(LOD_DISTANCES[lod] + LOD_HYSTERESIS)) lod++;
+        while (lod > LOD_FULL && distanceSq < square(LOD_DISTANCES[lod - 1] - LOD_HYSTERESIS)) lod--;
+        return lod;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    /**
+     * Adds the models that were built since the last frame to the cache and resets the build budget.
+     * Must be called once per frame on the render thread.
      */
-    private final Object2ObjectOpenHashMap<BakeKey, ChainModel> models = new Object2ObjectOpenHashMap<>(256);
+    public void beginFrame() {
+        syncBuildsLeft = MAX_SYNC_BUILDS_PER_FRAME;
+        BakeResult result;
+        while ((result = baked.poll()) != null) {
+            if (result.generation != generation) continue;
+            pending.remove(result.key);
+            if (result.model != null && !models.containsKey(result.key)) {
+                cache(result.key, result.model);
+            }
+        }
+    }
 
     /**
      * Renders the cached model for the given {@code key}.
-     * If a model is not present for the given key it will be built.
+     * If a model is not present for the given key it will be built, either right away or
+     * on the worker pool when this frame already built too many models.
      *
      * @param buffer      The target vertex buffer
      * @param matrices    The chain transformation
-     * @param key         The cache key for the {@code chainVec}
+     * @param key         The cache key for the {@code chainVec}, see {@link #bakeKey}
+     * @param lod         The level of detail, see {@link #getLod}
      * @param chainVec    The vector from the start position to the end position
      * @param blockLight0 The block light level at the start
      * @param blockLight1 The block light level at the end
      * @param skyLight0   The sky light level at the start
      * @param skyLight1   The sky light level at the end
      */
-    public void renderBaked(VertexConsumer buffer, PoseStack matrices, BakeKey key, Vector3f chainVec, int blockLight0, int blockLight1, int skyLight0, int skyLight1) {
-        ChainModel model;
-        if(models.containsKey(key)) {
-            model = models.get(key);
+    public void renderBaked(VertexConsumer buffer, PoseStack matrices, long key, int lod, Vector3f chainVec, int blockLight0, int blockLight1, int skyLight0, int skyLight1) {
+        long cacheKey = key | (long) lod << LOD_KEY_SHIFT;
+        ChainModel model = models.getAndMoveToLast(cacheKey);
+        if (model != null) {
+            hits++;
         } else {
-            model = buildModel(chainVec);
-            models.put(key, model);
-            if (!FMLEnvironment.production && models.size() > 10000){
-                ConnectibleChains.LOGGER.error("Chain model leak found!!!!!");
+            misses++;
+            // Straight models are as cheap as the placeholder
+            if (lod == LOD_STRAIGHT || syncBuildsLeft > 0 && !pending.contains(cacheKey)) {
+                if (lod != LOD_STRAIGHT) syncBuildsLeft--;
+                model = buildModel(chainVec, lod);
+                cache(cacheKey, model);
+            } else {
+                bakeAsync(cacheKey, chainVec, lod);
+                model = buildPlaceholder(chainVec);
             }
         }
         model.render(buffer, matrices, blockLight0, blockLight1, skyLight0, skyLight1);
     }
 
+    /**
+     * Returns the cached model for {@code key} or builds it right away, regardless of the frame budget.
+     *
+     * @param key      The cache key for the {@code chainVec}, see {@link #bakeKey}
+     * @param lod      The level of detail, see {@link #getLod}
+     * @param chainVec The vector from the start position to the end position
+     */
+    public ChainModel getModel(long key, int lod, Vector3f chainVec) {
+        long cacheKey = key | (long) lod << LOD_KEY_SHIFT;
+        ChainModel model = models.getAndMoveToLast(cacheKey);
+        if (model != null) {
+            hits++;
+            return model;
+        }
+        misses++;
+        model = buildModel(chainVec, lod);
+        cache(cacheKey, model);
+        return model;
+    }
+
+    private void cache(long key, ChainModel model) {
+        models.putAndMoveToLast(key, model);
+        cachedBytes += model.sizeInBytes();
+        evict(ConnectibleChains.runtimeConfig.getModelCacheBytes());
+    }
+
+    /**
+     * Builds the model for {@code key} on the worker pool, unless it is already being built.
+     */
+    private void bakeAsync(long key, Vector3f chainVec, int lod) {
+        if (!pending.add(key)) return;
+        Vector3f vec = chainVec.copy();
+        int bakeGeneration = generation;
+        CompletableFuture.supplyAsync(() -> buildModel(vec, lod), Util.backgroundExecutor())
+                .whenComplete((model, throwable) -> {
+                    if (throwable != null) ConnectibleChains.LOGGER.error("Failed to build chain model", throwable);
+                    baked.add(new BakeResult(key, bakeGeneration, model));
+                });
+    }
+
+    /**
+     * Removes the least recently used models until the cache fits into {@code maxBytes}.
+     * The most recent model is always kept.
+     */
+    private void evict(long maxBytes) {
+        while (cachedBytes > maxBytes && models.size() > 1) {
+            cachedBytes -= models.removeFirst().sizeInBytes();
+            evictions++;
+        }
+    }
+
     /**
      * Generates a new baked chain model for the given vector.
      *
      * @param chainVec The vector from the chain start to the end
+     * @param lod      The level of detail
      * @return The generated model
      */
-    private ChainModel buildModel(Vector3f chainVec) {
-        float desiredSegmentLength = 1f / ConnectibleChains.runtimeConfig.getQuality();
+    private ChainModel buildModel(Vector3f chainVec, int lod) {
+        if (lod == LOD_STRAIGHT) return buildPlaceholder(chainVec);
+
+        float desiredSegmentLength = 1f / getQuality(lod);
         int initialCapacity = (int) (2f * Helper.lengthOf(chainVec) / desiredSegmentLength);
         ChainModel.Builder builder = ChainModel.builder(initialCapacity);
 
         if (chainVec.x() == 0 && chainVec.z() == 0) {
-            buildFaceVertical(builder, chainVec, 45, UVRect.DEFAULT_SIDE_A);
-            buildFaceVertical(builder, chainVec, -45, UVRect.DEFAULT_SIDE_B);
+            buildFaceVertical(builder, chainVec, desiredSegmentLength, 45, UVRect.DEFAULT_SIDE_A);
+            buildFaceVertical(builder, chainVec, desiredSegmentLength, -45, UVRect.DEFAULT_SIDE_B);
         } else {
-            buildFace(builder, chainVec, 45, UVRect.DEFAULT_SIDE_A);
-            buildFace(builder, chainVec, -45, UVRect.DEFAULT_SIDE_B);
+            buildFace(builder, chainVec, desiredSegmentLength, 45, UVRect.DEFAULT_SIDE_A);
+            buildFace(builder, chainVec, desiredSegmentLength, -45, UVRect.DEFAULT_SIDE_B);
         }
 
         return builder.build();
     }
 
+    /**
+     * Generates a straight model without any segments, used for distant chains and until the real model is built.
+     *
+     * @param chainVec The vector from the chain start to the end
+     * @return The generated model
+     */
+    private ChainModel buildPlaceholder(Vector3f chainVec) {
+        // Vertical models are cheap to build anyway
+        if (chainVec.x() == 0 && chainVec.z() == 0) return buildModel(chainVec, LOD_REDUCED);
+
+        Vector3f end = new Vector3f((float) Math.sqrt(chainVec.x() * chainVec.x() + chainVec.z() * chainVec.z()), chainVec.y(), 0);
+        ChainModel.Builder builder = ChainModel.builder(8);
+        buildStraightFace(builder, end, 45, UVRect.DEFAULT_SIDE_A);
+        buildStraightFace(builder, end, -45, UVRect.DEFAULT_SIDE_B);
+        return builder.build();
+    }
+
+    /**
+     * Creates a single quad from the origin to {@code end} with the specified {@code angle}.
+     *
+     * @see #buildFace
+     */
+    private void buildStraightFace(ChainModel.Builder builder, Vector3f end, float angle, UVRect uv) {
+        float chainWidth = (uv.x1() - uv.x0()) / 16 * CHAIN_SCALE;
+        Vector3f rotAxis = end.copy();
+        rotAxis.normalize();
+
+        Vector3f normal = new Vector3f(-rotAxis.y(), rotAxis.x(), 0);
+        normal.transform(rotAxis.rotationDegrees(angle));
+        normal.mul(chainWidth);
+
+        Vector3f vert00 = new Vector3f(-normal.x()/2, -normal.y()/2, -normal.z()/2), vert01 = vert00.copy();
+        vert01.add(normal);
+        Vector3f vert10 = vert00.copy(), vert11 = vert01.copy();
+        vert10.add(end);
+        vert11.add(end);
+
+        float uvv1 = Helper.lengthOf(end) / CHAIN_SCALE;
+        builder.vertex(vert00).uv(uv.x0() / 16f, 0).next();
+        builder.vertex(vert01).uv(uv.x1() / 16f, 0).next();
+        builder.vertex(vert10).uv(uv.x0() / 16f, uvv1).next();
+        builder.vertex(vert11).uv(uv.x1() / 16f, uvv1).next();
+    }
+
     /**
      * {@link #buildFace} does not work when {@code v} is pointing straight up or down.
      */
-    private void buildFaceVertical(ChainModel.Builder builder, Vector3f v, float angle, UVRect uv) {
-        float actualSegmentLength = 1f / ConnectibleChains.runtimeConfig.getQuality();
+    private void buildFaceVertical(ChainModel.Builder builder, Vector3f v, float desiredSegmentLength, float angle, UVRect uv) {
+        float actualSegmentLength = desiredSegmentLength;
         float chainWidth = (uv.x1() - uv.x0()) / 16 * CHAIN_SCALE;
 
         Vector3f normal = new Vector3f((float)Math.cos(Math.toRadians(angle)), 0, (float)Math.sin(Math.toRadians(angle)));
@@ -113,7 +338,10 @@ public class ChainRenderer {
         Vector3f vert10 = new Vector3f(-normal.x()/2, 0, -normal.z()/2), vert11 = vert10.copy();
         vert11.add(normal);
 
-        float uvv0 = 0, uvv1 = 0;
+        float uvv1 = 0;
+        builder.vertex(vert00).uv(uv.x0() / 16f, 0).next();
+        builder.vertex(vert01).uv(uv.x1() / 16f, 0).next();
+
         boolean lastIter_ = false;
         for (int segment = 0; segment < MAX_SEGMENTS; segment++) {
             if(vert00.y() + actualSegmentLength >= v.y()) {
@@ -126,15 +354,11 @@ public class ChainRenderer {
 
             uvv1 += actualSegmentLength / CHAIN_SCALE;
 
-            builder.vertex(vert00).uv(uv.x0() / 16f, uvv0).next();
-            builder.vertex(vert01).uv(uv.x1() / 16f, uvv0).next();
-            builder.vertex(vert11).uv(uv.x1() / 16f, uvv1).next();
             builder.vertex(vert10).uv(uv.x0() / 16f, uvv1).next();
+            builder.vertex(vert11).uv(uv.x1() / 16f, uvv1).next();
 
             if(lastIter_) break;
 
-            uvv0 = uvv1;
-
             vert00.load(vert10);
             vert01.load(vert11);
         }
@@ -147,13 +371,14 @@ public class ChainRenderer {
      * The model is always generated along the local X axis and curves along the Y axis.
      * This makes the calculation a lot simpler as we are only dealing with 2d coordinates.
      *
-     * @param builder The target builder
-     * @param v       The end position in relation to the origin
-     * @param angle   The angle of the face
-     * @param uv      The uv bounds of the face
+     * @param builder              The target builder
+     * @param v                    The end position in relation to the origin
+     * @param desiredSegmentLength The length of the segments, depends on the quality
+     * @param angle                The angle of the face
+     * @param uv                   The uv bounds of the face
      */
-    private void buildFace(ChainModel.Builder builder, Vector3f v, float angle, UVRect uv) {
-        float actualSegmentLength, desiredSegmentLength = 1f / ConnectibleChains.runtimeConfig.getQuality();
+    private void buildFace(ChainModel.Builder builder, Vector3f v, float desiredSegmentLength, float angle, UVRect uv) {
+        float actualSegmentLength;
         float distance = Helper.lengthOf(v), distanceXZ = (float) Math.sqrt(v.x()*v.x() + v.z()*v.z());
         // Original code used total distance between start and end instead of horizontal distance
         // That changed the look of chains when there was a big height difference, but it looks better.
@@ -161,12 +386,12 @@ public class ChainRenderer {
 
         // 00, 01, 11, 11 refers to the X and Y position of the vertex.
         // 00 is the lower X and Y vertex. 10 Has the same y value as 00 but a higher x value.
-        Vector3f vert00 = new Vector3f(), vert01 = new Vector3f(), vert11 = new Vector3f(), vert10 = new Vector3f();
+        Vector3f vert11 = new Vector3f(), vert10 = new Vector3f();
         Vector3f normal = new Vector3f(), rotAxis = new Vector3f();
 
         float chainWidth = (uv.x1() - uv.x0()) / 16 * CHAIN_SCALE;
 
-        float uvv0, uvv1 = 0, gradient, x, y;
+        float uvv1 = 0, gradient, x, y;
         Vector3f point0 = new Vector3f(), point1 = new Vector3f();
         Quaternion rotator;
 
@@ -194,6 +419,10 @@ public class ChainRenderer {
 
         actualSegmentLength = Helper.distanceBetween(point0, point1);
 
+        // The model is a triangle strip, every segment only adds the two vertices at its end
+        builder.vertex(vert10).uv(uv.x0() / 16f, 0).next();
+        builder.vertex(vert11).uv(uv.x1() / 16f, 0).next();
+
         // This is a pretty simple algorithm to convert the mathematical curve to a model.
         // It uses an incremental approach, adding segments until the end is reached.
         boolean lastIter_ = false;
@@ -208,20 +437,14 @@ public class ChainRenderer {
             normal.transform(rotator);
             normal.mul(chainWidth);
 
-            vert00.load(vert10);
-            vert01.load(vert11);
-
             vert10.set(point1.x() - normal.x()/2, point1.y() - normal.y()/2, point1.z() - normal.z()/2);
             vert11.load(vert10);
             vert11.add(normal);
 
-            uvv0 = uvv1;
-            uvv1 = uvv0 + actualSegmentLength / CHAIN_SCALE;
+            uvv1 += actualSegmentLength / CHAIN_SCALE;
 
-            builder.vertex(vert00).uv(uv.x0() / 16f, uvv0).next();
-            builder.vertex(vert01).uv(uv.x1() / 16f, uvv0).next();
-            builder.vertex(vert11).uv(uv.x1() / 16f, uvv1).next();
             builder.vertex(vert10).uv(uv.x0() / 16f, uvv1).next();
+            builder.vertex(vert11).uv(uv.x1() / 16f, uvv1).next();
 
             if(lastIter_) break;
 
@@ -265,57 +488,56 @@ public class ChainRenderer {
     }
 
     /**
-     * Same as {@link #renderBaked(VertexConsumer, PoseStack, BakeKey, Vector3f, int, int, int, int)} but will not use
+     * Same as {@link #renderBaked(VertexConsumer, PoseStack, long, int, Vector3f, int, int, int, int)} but will not use
      * the model cache. This should be used when {@code chainVec} is changed very frequently.
      *
      * @see #renderBaked
      */
     public void render(VertexConsumer buffer, PoseStack matrices, Vector3f chainVec, int blockLight0, int blockLight1, int skyLight0, int skyLight1) {
-        ChainModel model = buildModel(chainVec);
+        ChainModel model = buildModel(chainVec, LOD_FULL);
         model.render(buffer, matrices, blockLight0, blockLight1, skyLight0, skyLight1);
     }
 
     /**
-     * Used to identify a cached model.
+     * Creates the key that identifies a cached model.
      * Chains that have an identical bake key can use the same model as the geometry is the same.
+     * <p>
+     * The height difference and the squared horizontal distance are stored as fixed point numbers with
+     * {@link #BAKE_KEY_PRECISION} steps per block in the upper and lower half of the key.
+     * This is exact for all positions on a 1/16 block grid, which includes all knots and hanging entities.
+     * The height difference is masked to 29 bits, the top bits are reserved for the level of detail.
+     *
+     * @param srcPos The start of the chain
+     * @param dstPos The end of the chain
+     * @return The key for the model cache
      */
-    public static class BakeKey {
-        private final int hash;
-        public BakeKey(Vec3 srcPos, Vec3 dstPos) {
-            float dY = (float) (srcPos.y - dstPos.y);
-            float dXZ = Helper.distanceBetween(
-                    new Vector3f((float) srcPos.x, 0, (float) srcPos.z),
-                    new Vector3f((float) dstPos.x, 0, (float) dstPos.z));
-
-            int hash = Float.floatToIntBits(dY);
-            hash = 31 * hash + Float.floatToIntBits(dXZ);
-            this.hash = hash;
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-
-            BakeKey bakeKey = (BakeKey) o;
-            return hash == bakeKey.hash;
-        }
+    public static long bakeKey(Vec3 srcPos, Vec3 dstPos) {
+        double dX = dstPos.x - srcPos.x, dY = srcPos.y - dstPos.y, dZ = dstPos.z - srcPos.z;
+        int y = (int) Math.round(dY * BAKE_KEY_PRECISION);
+        int xzSquared = (int) Math.round((dX * dX + dZ * dZ) * BAKE_KEY_PRECISION);
+        return ((long) y & BAKE_KEY_Y_MASK) << 32 | (xzSquared & 0xFFFFFFFFL);
     }
 
-
-
-
-
-
-
-
+    /**
+     * @return The cache statistics, shown in the debug screen
+     */
+    public String getCacheInfo() {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+        return String.format("Chain models: %d (%d KiB), %.1f%% hits, %d evicted",
+                models.size(), cachedBytes / 1024, hitRate, evictions);
+    }
 
     public void purge() {
         models.clear();
+        cachedBytes = 0;
+        pending.clear();
+        generation++;
+    }
+
+    /**
+     * @param model The built model or null if building failed
+     */
+    private record BakeResult(long key, int generation, @Nullable ChainModel model) {
     }
 }
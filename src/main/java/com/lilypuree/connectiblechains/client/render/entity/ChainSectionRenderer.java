@@ -0,0 +1,305 @@
+package com.lilypuree.connectiblechains.client.render.entity;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.client.ChainLightCache;
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.util.Helper;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexBuffer;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import com.mojang.math.Quaternion;
+import com.mojang.math.Vector3f;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Renders links between two knots from one {@link VertexBuffer} per chunk section and chain texture.
+ * These links can't move, so their geometry only has to be compiled again when a link of the section
+ * is created or destroyed, or when the {@link ChainLightCache} reports that the light around it changed.
+ * <p>
+ * Links are always tracked, but only compiled and rendered when {@link #isEnabled()}.
+ * The {@link ChainKnotEntityRenderer} skips the links that are rendered here,
+ * new links are rendered by it until their section has been compiled.
+ * <p>
+ * The buffers are drawn after the entities and before the translucent terrain.
+ *
+ * @see com.lilypuree.connectiblechains.mixin.client.LevelRendererMixin
+ */
+@OnlyIn(Dist.CLIENT)
+public class ChainSectionRenderer {
+    /**
+     * Every how many ticks links of removed knots are dropped.
+     */
+    private static final int CLEANUP_INTERVAL = 20;
+    /**
+     * How many sections may be compiled per frame, the others keep their old buffers until the next frame.
+     */
+    private static final int MAX_COMPILES_PER_FRAME = 4;
+
+    private final ChainRenderer chainRenderer = new ChainRenderer();
+    private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    private final BufferBuilder builder = new BufferBuilder(4096);
+    private int ticks = 0;
+
+    public static boolean isEnabled() {
+        return ConnectibleChains.runtimeConfig.doBufferStaticChains() && !ConnectibleChains.runtimeConfig.doDebugDraw();
+    }
+
+    /**
+     * @return true if the link is between two knots and can be rendered from a section buffer.
+     */
+    public static boolean isStatic(ChainLink link) {
+        return link.secondary instanceof ChainKnotEntity;
+    }
+
+    /**
+     * @return true if the link is drawn from the buffer of its section and must not be rendered as part of the knot.
+     */
+    public static boolean isBuffered(ChainLink link) {
+        return isEnabled() && link.renderBuffered;
+    }
+
+    public void onLinkCreated(ChainLink link) {
+        if (!isStatic(link)) return;
+        Section section = sections.computeIfAbsent(SectionPos.asLong(link.primary.getPos()), pos -> new Section());
+        section.links.add(link);
+        section.dirty = true;
+        section.bounds = null;
+    }
+
+    public void onLinkDestroyed(ChainLink link) {
+        if (!isStatic(link)) return;
+        Section section = sections.get(SectionPos.asLong(link.primary.getPos()));
+        if (section != null && section.links.remove(link)) {
+            section.dirty = true;
+        }
+    }
+
+    /**
+     * Marks the section of a link as dirty after its cached light was invalidated.
+     *
+     * @see ChainLightCache#onLightUpdate
+     */
+    public void onLightChanged(ChainLink link) {
+        if (!isStatic(link)) return;
+        Section section = sections.get(SectionPos.asLong(link.primary.getPos()));
+        if (section != null && section.links.contains(link)) {
+            section.dirty = true;
+        }
+    }
+
+    /**
+     * Drops links of knots that were removed, called every client tick.
+     */
+    public void tick() {
+        if (sections.isEmpty() || ++ticks < CLEANUP_INTERVAL) return;
+        ticks = 0;
+
+        Iterator<Section> iterator = sections.values().iterator();
+        while (iterator.hasNext()) {
+            Section section = iterator.next();
+            if (section.links.removeIf(link -> {
+                if (!link.isDead() && !link.primary.isRemoved() && !link.secondary.isRemoved()) return false;
+                ClientInitializer.chainLightCache.forget(link);
+                return true;
+            })) {
+                section.dirty = true;
+            }
+            if (section.links.isEmpty()) {
+                section.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Draws all sections within the render distance and the view frustum, compiling dirty ones first.
+     * Called after the entities of the level were rendered.
+     *
+     * @param matrices   The camera relative matrix stack
+     * @param projection The projection matrix of the level
+     */
+    public void render(PoseStack matrices, Matrix4f projection) {
+        Minecraft client = Minecraft.getInstance();
+        if (sections.isEmpty() || !isEnabled() || client.level == null) return;
+
+        Vec3 camera = client.gameRenderer.getMainCamera().getPosition();
+        double maxDistance = client.options.getEffectiveRenderDistance() * 16 + 16;
+        int compilesLeft = MAX_COMPILES_PER_FRAME;
+        Frustum frustum = new Frustum(matrices.last().pose(), projection);
+        frustum.prepare(camera.x, camera.y, camera.z);
+
+        for (Long2ObjectMap.Entry<Section> entry : sections.long2ObjectEntrySet()) {
+            Section section = entry.getValue();
+            BlockPos origin = SectionPos.of(entry.getLongKey()).origin();
+            double dx = origin.getX() + 8 - camera.x, dz = origin.getZ() + 8 - camera.z;
+            if (dx * dx + dz * dz > maxDistance * maxDistance) continue;
+            // Sections without bounds have new links and must be compiled first
+            if (section.bounds != null && !frustum.isVisible(section.bounds)) continue;
+
+            double dy = origin.getY() + 8 - camera.y;
+            int lod = ChainRenderer.getLod(section.lod, dx * dx + dy * dy + dz * dz);
+            if (lod != section.lod) {
+                section.lod = lod;
+                section.dirty = true;
+            }
+
+            if (section.dirty && compilesLeft > 0) {
+                compilesLeft--;
+                compile(client.level, section, origin);
+            }
+            if (section.buffers.isEmpty()) continue;
+
+            matrices.pushPose();
+            matrices.translate(origin.getX() - camera.x, origin.getY() - camera.y, origin.getZ() - camera.z);
+            for (Reference2ObjectMap.Entry<RenderType, VertexBuffer> buffer : section.buffers.reference2ObjectEntrySet()) {
+                RenderType renderType = buffer.getKey();
+                renderType.setupRenderState();
+                buffer.getValue().drawWithShader(matrices.last().pose(), projection, RenderSystem.getShader());
+                renderType.clearRenderState();
+            }
+            matrices.popPose();
+        }
+    }
+
+    /**
+     * Builds the geometry of all links of a section relative to its origin, one buffer per chain texture.
+     */
+    private void compile(Level level, Section section, BlockPos origin) {
+        section.dirty = false;
+        section.bounds = null;
+
+        Reference2ObjectMap<RenderType, List<ChainLink>> linksByType = new Reference2ObjectOpenHashMap<>();
+        for (ChainLink link : section.links) {
+            AABB linkBounds = ChainKnotEntityRenderer.getLinkBounds(link);
+            section.bounds = section.bounds == null ? linkBounds : section.bounds.minmax(linkBounds);
+            RenderType renderType = ChainRenderType.chain(link.chainType.getChainTexture());
+            linksByType.computeIfAbsent(renderType, type -> new ReferenceArrayList<>()).add(link);
+        }
+
+        // Buffers of textures that are no longer used
+        section.buffers.reference2ObjectEntrySet().removeIf(entry -> {
+            if (linksByType.containsKey(entry.getKey())) return false;
+            entry.getValue().close();
+            return true;
+        });
+
+        PoseStack matrices = new PoseStack();
+        for (Reference2ObjectMap.Entry<RenderType, List<ChainLink>> entry : linksByType.reference2ObjectEntrySet()) {
+            builder.begin(VertexFormat.Mode.TRIANGLE_STRIP, ChainRenderType.CHAIN_FORMAT);
+            for (ChainLink link : entry.getValue()) {
+                addLink(level, matrices, link, origin, section.lod);
+                link.renderBuffered = true;
+            }
+            builder.end();
+            section.buffers.computeIfAbsent(entry.getKey(), type -> new VertexBuffer()).upload(builder);
+        }
+    }
+
+    /**
+     * Same transformations as {@link ChainKnotEntityRenderer}, but relative to the section origin.
+     */
+    private void addLink(Level level, PoseStack matrices, ChainLink link, BlockPos origin, int lod) {
+        ChainKnotEntity fromEntity = link.primary;
+        ChainKnotEntity toEntity = (ChainKnotEntity) link.secondary;
+        Vec3 srcPos = fromEntity.position().add(fromEntity.getLeashOffset());
+        Vec3 dstPos = toEntity.position().add(toEntity.getLeashOffset());
+
+        matrices.pushPose();
+        matrices.translate(srcPos.x - origin.getX(), srcPos.y - origin.getY(), srcPos.z - origin.getZ());
+
+        Vector3f offset = Helper.getChainOffset(srcPos, dstPos);
+        matrices.translate(offset.x(), 0, offset.z());
+
+        int light = ClientInitializer.chainLightCache.getLight(level, link);
+
+        Vec3 startPos = srcPos.add(offset.x(), 0, offset.z());
+        Vec3 endPos = dstPos.add(-offset.x(), 0, -offset.z());
+        Vector3f chainVec = new Vector3f((float) (endPos.x - startPos.x), (float) (endPos.y - startPos.y), (float) (endPos.z - startPos.z));
+
+        float angleY = -(float) Math.atan2(chainVec.z(), chainVec.x());
+        matrices.mulPose(Quaternion.fromXYZ(0, angleY, 0));
+
+        long key = ChainRenderer.bakeKey(fromEntity.position(), toEntity.position());
+        chainRenderer.getModel(key, lod, chainVec).render(builder, matrices,
+                ChainLightCache.getBlockLight0(light), ChainLightCache.getBlockLight1(light),
+                ChainLightCache.getSkyLight0(light), ChainLightCache.getSkyLight1(light));
+        matrices.popPose();
+    }
+
+    /**
+     * Marks all sections as dirty, for example when the chain quality or the hang amount changed.
+     * The cached bounds are dropped as well, as they depend on the hang amount.
+     * All links between knots are part of a section, so this covers the bounds used by the knot renderer too.
+     */
+    public void invalidate() {
+        chainRenderer.purge();
+        for (Section section : sections.values()) {
+            section.dirty = true;
+            section.bounds = null;
+            for (ChainLink link : section.links) {
+                link.renderBounds = null;
+            }
+        }
+    }
+
+    /**
+     * Drops all sections and frees their buffers, called when the client leaves a level.
+     */
+    public void clear() {
+        for (Section section : sections.values()) {
+            section.close();
+        }
+        sections.clear();
+        chainRenderer.purge();
+    }
+
+    private static class Section {
+        /**
+         * Compared by identity, as the equality of links changes when they are destroyed
+         */
+        final Set<ChainLink> links = new ReferenceOpenHashSet<>();
+        final Reference2ObjectMap<RenderType, VertexBuffer> buffers = new Reference2ObjectOpenHashMap<>();
+        boolean dirty = true;
+        /**
+         * The bounds of all links when the section was last compiled, links can reach into other sections
+         */
+        @Nullable
+        AABB bounds;
+        /**
+         * The level of detail of all links in this section, based on the distance to the center
+         */
+        int lod = ChainRenderer.LOD_FULL;
+
+        void close() {
+            for (VertexBuffer buffer : buffers.values()) {
+                buffer.close();
+            }
+            buffers.clear();
+        }
+    }
+}
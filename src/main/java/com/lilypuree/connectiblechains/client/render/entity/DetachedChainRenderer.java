@@ -0,0 +1,103 @@
+package com.lilypuree.connectiblechains.client.render.entity;
+
+import com.lilypuree.connectiblechains.chain.ChainType;
+import com.lilypuree.connectiblechains.util.Helper;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.math.Quaternion;
+import com.mojang.math.Vector3f;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/**
+ * Renders chains that are not backed by a {@link com.lilypuree.connectiblechains.chain.ChainLink},
+ * such as predicted links or far chains. It is called from {@link net.minecraftforge.client.event.RenderLevelLastEvent}
+ * and works in world coordinates instead of entity relative ones.
+ *
+ * @see ChainKnotEntityRenderer
+ */
+@OnlyIn(Dist.CLIENT)
+public class DetachedChainRenderer {
+    private final ChainRenderer chainRenderer;
+
+    public DetachedChainRenderer() {
+        this.chainRenderer = new ChainRenderer();
+    }
+
+    /**
+     * @param quality The fixed quality of the chains
+     * @see ChainRenderer#ChainRenderer(int)
+     */
+    public DetachedChainRenderer(int quality) {
+        this.chainRenderer = new ChainRenderer(quality);
+    }
+
+    /**
+     * Renders a chain between two points.
+     *
+     * @param matrices  The camera relative matrix stack
+     * @param buffers   The buffers, the caller has to end the batch
+     * @param level     The level used for the lighting
+     * @param camera    The camera position
+     * @param srcPos    The start of the chain, including the leash offset
+     * @param dstPos    The end of the chain, including the leash offset
+     * @param chainType The type of the chain
+     * @param fixed     Whether both points are fixed, in that case the model is cached
+     */
+    public void render(PoseStack matrices, MultiBufferSource buffers, Level level, Vec3 camera,
+                       Vec3 srcPos, Vec3 dstPos, ChainType chainType, boolean fixed) {
+        matrices.pushPose();
+        matrices.translate(srcPos.x - camera.x, srcPos.y - camera.y, srcPos.z - camera.z);
+
+        VertexConsumer buffer = buffers.getBuffer(ChainRenderType.chain(chainType.getChainTexture()));
+
+        Vector3f offset = Helper.getChainOffset(srcPos, dstPos);
+        matrices.translate(offset.x(), 0, offset.z());
+
+        BlockPos blockPosOfStart = new BlockPos(srcPos);
+        BlockPos blockPosOfEnd = new BlockPos(dstPos);
+        int blockLight0 = level.getBrightness(LightLayer.BLOCK, blockPosOfStart);
+        int blockLight1 = level.getBrightness(LightLayer.BLOCK, blockPosOfEnd);
+        int skyLight0 = getSkyLight(level, blockPosOfStart);
+        int skyLight1 = getSkyLight(level, blockPosOfEnd);
+
+        Vec3 startPos = srcPos.add(offset.x(), 0, offset.z());
+        Vec3 endPos = dstPos.add(-offset.x(), 0, -offset.z());
+        Vector3f chainVec = new Vector3f((float) (endPos.x - startPos.x), (float) (endPos.y - startPos.y), (float) (endPos.z - startPos.z));
+
+        float angleY = -(float) Math.atan2(chainVec.z(), chainVec.x());
+        matrices.mulPose(Quaternion.fromXYZ(0, angleY, 0));
+
+        if (fixed) {
+            long key = ChainRenderer.bakeKey(srcPos, dstPos);
+            chainRenderer.renderBaked(buffer, matrices, key, ChainRenderer.LOD_FULL, chainVec, blockLight0, blockLight1, skyLight0, skyLight1);
+        } else {
+            chainRenderer.render(buffer, matrices, chainVec, blockLight0, blockLight1, skyLight0, skyLight1);
+        }
+
+        matrices.popPose();
+    }
+
+    /**
+     * Far chains can be outside the loaded chunks, which would make them completely dark.
+     */
+    private static int getSkyLight(Level level, BlockPos pos) {
+        return level.hasChunkAt(pos) ? level.getBrightness(LightLayer.SKY, pos) : 15;
+    }
+
+    /**
+     * @see ChainRenderer#beginFrame()
+     */
+    public void beginFrame() {
+        chainRenderer.beginFrame();
+    }
+
+    public void purge() {
+        chainRenderer.purge();
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.lilypuree.connectiblechains.entity;
 
+import com.lilypuree.connectiblechains.ConnectibleChains;
 import com.lilypuree.connectiblechains.chain.ChainLink;
 import com.lilypuree.connectiblechains.chain.ChainType;
 import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
@@ -23,6 +24,7 @@ import com.lilypuree.connectiblechains.client.ClientInitializer;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
@@ -88,12 +90,21 @@ public class ChainCollisionEntity extends Entity implements IEntityAdditionalSpa
 
     @Override
     public boolean isPickable() {
-        return !isRemoved();
+        return !isRemoved() && isSolid();
     }
 
     @Override
     public boolean canBeCollidedWith() {
-        return true;
+        return isSolid();
+    }
+
+    /**
+     * Colliders that are not synced must not block players or projectiles on the server,
+     * the clients don't know about them and would be moved back by the server.
+     * On the client colliders only exist when they are synced.
+     */
+    private boolean isSolid() {
+        return level.isClientSide || ConnectibleChains.runtimeConfig.doSyncCollisionEntities();
     }
 
     @Override
@@ -161,6 +172,16 @@ public class ChainCollisionEntity extends Entity implements IEntityAdditionalSpa
         return InteractionResult.PASS;
     }
 
+    /**
+     * When collision entities are not synced the clients reconstruct the colliders from the link geometry.
+     *
+     * @see ChainLink#getCollisionBoxes()
+     */
+    @Override
+    public boolean broadcastToPlayer(ServerPlayer player) {
+        return ConnectibleChains.runtimeConfig.doSyncCollisionEntities();
+    }
+
     @Override
     public Packet<?> getAddEntityPacket() {
         return NetworkHooks.getEntitySpawningPacket(this);
@@ -169,12 +190,12 @@ public class ChainCollisionEntity extends Entity implements IEntityAdditionalSpa
     @Override
     public void writeSpawnData(FriendlyByteBuf buffer) {
         ChainType chainType = link == null ? ChainTypesRegistry.DEFAULT_CHAIN_TYPE: link.chainType;
-        buffer.writeResourceLocation(ChainTypesRegistry.getKey(chainType));
+        buffer.writeVarInt(ChainTypesRegistry.getRawId(chainType));
     }
 
     @Override
     public void readSpawnData(FriendlyByteBuf additionalData) {
-        this.setChainType(ChainTypesRegistry.getValue(additionalData.readResourceLocation()));
+        this.setChainType(ChainTypesRegistry.getValue(additionalData.readVarInt()));
     }
 
     @Override
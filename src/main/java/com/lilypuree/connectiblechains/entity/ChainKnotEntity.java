@@ -21,9 +21,10 @@ import com.lilypuree.connectiblechains.ConnectibleChains;
 import com.lilypuree.connectiblechains.chain.ChainLink;
 import com.lilypuree.connectiblechains.chain.ChainType;
 import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.chain.KnotChunkIndex;
+import com.lilypuree.connectiblechains.client.ClientInitializer;
 import com.lilypuree.connectiblechains.datafixer.ChainKnotFixer;
-import com.lilypuree.connectiblechains.network.ModPacketHandler;
-import com.lilypuree.connectiblechains.network.S2CKnotChangeTypePacket;
+import com.lilypuree.connectiblechains.network.ChainDeltaAccumulator;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import net.minecraft.core.BlockPos;
@@ -33,7 +34,6 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.Packet;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.tags.BlockTags;
@@ -57,7 +57,6 @@ import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.entity.IEntityAdditionalSpawnData;
 import net.minecraftforge.network.NetworkHooks;
-import net.minecraftforge.network.PacketDistributor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -114,6 +113,17 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
      */
     private BlockState attachTarget;
 
+    /**
+     * Whether the knot is in the {@link KnotChunkIndex}. (server side only)
+     */
+    private boolean indexed = false;
+
+    /**
+     * Secondary ids and type ids of the links received with the spawn data.
+     * They are created once the knot is added to the world. (client side only)
+     */
+    private int[] spawnLinkIds, spawnLinkTypes;
+
     protected ChainKnotEntity(EntityType<? extends HangingEntity> entityType, Level level) {
         super(entityType, level);
     }
@@ -242,6 +252,7 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
         if (playBreakSound) dropItem(null);
 
         links.removeIf(ChainLink::isDead);
+        if (links.isEmpty()) KnotChunkIndex.remove(this);
         if (links.isEmpty() && incompleteLinks.isEmpty() && graceTicks <= 0) {
             remove(RemovalReason.DISCARDED);
             // No break sound
@@ -551,6 +562,9 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
     public InteractionResult interact(Player player, InteractionHand hand) {
         ItemStack handStack = player.getItemInHand(hand);
         if (level.isClientSide) {
+            if (hand == InteractionHand.MAIN_HAND) {
+                ClientInitializer.chainPredictions.predictUse(player, getPos(), handStack);
+            }
             if (ChainTypesRegistry.ITEM_CHAIN_TYPES.containsKey(handStack.getItem())) {
                 return InteractionResult.SUCCESS;
             }
@@ -613,23 +627,22 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
      * @return true if it has made a connection.
      */
     public boolean tryAttachHeldChains(Player player) {
-        boolean hasMadeConnection = false;
+        List<ChainKnotEntity> movedFrom = new ArrayList<>();
         List<ChainLink> attachableLinks = getHeldChainsInRange(player, getPos());
         for (ChainLink link : attachableLinks) {
             // Prevent connections with self
             if (link.primary == this) continue;
 
-            // Move that link to this knot
-            ChainLink newLink = ChainLink.create(link.primary, this, link.chainType);
-
-            // Check if the link does not already exist
-            if (newLink != null) {
-                link.destroy(false);
-                link.removeSilently = true;
-                hasMadeConnection = true;
+            // Move that link to this knot, unless it already exists
+            if (ChainLink.relink(link, this) != null) {
+                movedFrom.add(link.primary);
             }
         }
-        return hasMadeConnection;
+        if (movedFrom.isEmpty()) return false;
+
+        // All moved links are sent as one change
+        ChainDeltaAccumulator.INSTANCE.relink(this, player, movedFrom);
+        return true;
     }
 
     @Override
@@ -638,7 +651,7 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
     }
 
     /**
-     * Sets the chain type and sends a packet to the client.
+     * Sets the chain type and notifies the tracking clients at the end of the tick.
      *
      * @param chainType The new chain type.
      */
@@ -646,11 +659,7 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
         this.chainType = chainType;
 
         if (!level.isClientSide) {
-            S2CKnotChangeTypePacket packet = new S2CKnotChangeTypePacket(getId(), ChainTypesRegistry.getKey(chainType));
-            BlockPos pos = blockPosition();
-            ModPacketHandler.INSTANCE.send(PacketDistributor.NEAR
-                            .with(PacketDistributor.TargetPoint.p(pos.getX(), pos.getY(), pos.getZ(), ChainKnotEntity.VISIBLE_RANGE, level.dimension())),
-                    packet);
+            ChainDeltaAccumulator.INSTANCE.changeType(this);
         }
     }
 
@@ -697,16 +706,48 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
         return NetworkHooks.getEntitySpawningPacket(this);
     }
 
+    /**
+     * Writes the chain type and all links where this knot is the primary,
+     * so that the client doesn't need a separate attach packet when it starts tracking the knot.
+     */
     @Override
     public void writeSpawnData(FriendlyByteBuf buffer) {
-        buffer.writeResourceLocation(ChainTypesRegistry.getKey(chainType));
+        buffer.writeVarInt(ChainTypesRegistry.getRawId(chainType));
+        int count = 0;
+        for (ChainLink link : links) {
+            if (link.primary == this && !link.isDead()) count++;
+        }
+        buffer.writeVarInt(count);
+        for (ChainLink link : links) {
+            if (link.primary == this && !link.isDead()) {
+                buffer.writeVarInt(link.secondary.getId());
+                buffer.writeVarInt(ChainTypesRegistry.getRawId(link.chainType));
+            }
+        }
     }
 
     @Override
     public void readSpawnData(FriendlyByteBuf additionalData) {
-        ResourceLocation chainTypeID = additionalData.readResourceLocation();
-        this.setChainType(ChainTypesRegistry.getValue(chainTypeID));
+        this.setChainType(ChainTypesRegistry.getValue(additionalData.readVarInt()));
         this.setGraceTicks((byte) 0);
+        int count = additionalData.readVarInt();
+        if (count == 0) return;
+        spawnLinkIds = new int[count];
+        spawnLinkTypes = new int[count];
+        for (int i = 0; i < count; i++) {
+            spawnLinkIds[i] = additionalData.readVarInt();
+            spawnLinkTypes[i] = additionalData.readVarInt();
+        }
+    }
+
+    @Override
+    public void onAddedToWorld() {
+        super.onAddedToWorld();
+        if (level.isClientSide && spawnLinkIds != null) {
+            ClientInitializer.chainPacketHandler.createLinks(this, spawnLinkIds, spawnLinkTypes);
+            spawnLinkIds = null;
+            spawnLinkTypes = null;
+        }
     }
 
     /**
@@ -721,6 +762,21 @@ public class ChainKnotEntity extends HangingEntity implements IEntityAdditionalS
 
     public void addLink(ChainLink link) {
         links.add(link);
+        KnotChunkIndex.add(this);
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+
+    @Override
+    public void onRemovedFromWorld() {
+        super.onRemovedFromWorld();
+        KnotChunkIndex.remove(this);
     }
 
     @Override
@@ -6,6 +6,7 @@ import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.Tags;
 
 /**
@@ -29,6 +30,14 @@ public interface ChainLinkEntity {
      * {@link InteractionResult#CONSUME} when the link should be destroyed but not drop.
      */
     static InteractionResult onDamageFrom(Entity self, DamageSource source) {
+        return onDamageFrom(self, source, self.position());
+    }
+
+    /**
+     * Same as {@link #onDamageFrom(Entity, DamageSource)}, but plays the hit sound at {@code soundPos}.
+     * Used for links that are hit without a collision entity.
+     */
+    static InteractionResult onDamageFrom(Entity self, DamageSource source, Vec3 soundPos) {
         if (self.isInvulnerableTo(source)) {
             return InteractionResult.FAIL;
         }
@@ -49,7 +58,9 @@ public interface ChainLinkEntity {
             // Projectiles such as arrows (actually probably just arrows) can get "stuck"
             // on entities they cannot damage, such as players while blocking with shields or these chains.
             // That would cause some serious sound spam, and we want to avoid that.
-            self.playSound(SoundEvents.CHAIN_HIT, 0.5F, 1.0F);
+            if (!self.isSilent()) {
+                self.level.playSound(null, soundPos.x, soundPos.y, soundPos.z, SoundEvents.CHAIN_HIT, self.getSoundSource(), 0.5F, 1.0F);
+            }
         }
         return InteractionResult.FAIL;
     }
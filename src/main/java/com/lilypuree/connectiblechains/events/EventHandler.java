@@ -1,19 +1,27 @@
 package com.lilypuree.connectiblechains.events;
 
 import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.chain.KnotChunkIndex;
 import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
 import com.lilypuree.connectiblechains.entity.ModEntityTypes;
+import com.lilypuree.connectiblechains.network.ChainDeltaAccumulator;
+import com.lilypuree.connectiblechains.network.FarChainSync;
 import com.lilypuree.connectiblechains.network.ModPacketHandler;
-import com.lilypuree.connectiblechains.network.S2CMultiChainAttachPacket;
-import com.lilypuree.connectiblechains.util.PacketCreator;
+import com.lilypuree.connectiblechains.network.NetworkStats;
+import com.lilypuree.connectiblechains.network.NetworkStatsCommand;
+import com.lilypuree.connectiblechains.network.S2CConfigSyncPacket;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
-import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 @Mod.EventBusSubscriber(modid = ConnectibleChains.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
 public class EventHandler {
@@ -27,11 +35,52 @@ public class EventHandler {
     }
 
     @SubscribeEvent
-    public static void onStartTracking(PlayerEvent.StartTracking event) {
-        if (event.getTarget() instanceof ChainKnotEntity knot) {
-            S2CMultiChainAttachPacket packet = PacketCreator.createMultiAttach(knot);
-            if (packet == null) return;
-            ModPacketHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> (ServerPlayer) event.getPlayer()), packet);
+    public static void onStopTracking(PlayerEvent.StopTracking event) {
+        if (event.getTarget() instanceof ChainKnotEntity knot && event.getPlayer() instanceof ServerPlayer player) {
+            ChainDeltaAccumulator.INSTANCE.forget(player, knot.getId());
         }
     }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getPlayer() instanceof ServerPlayer player) {
+            ModPacketHandler.sendToPlayer(player, S2CConfigSyncPacket.create());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getPlayer() instanceof ServerPlayer player) {
+            FarChainSync.INSTANCE.forget(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getPlayer() instanceof ServerPlayer player) {
+            ChainDeltaAccumulator.INSTANCE.forget(player);
+            FarChainSync.INSTANCE.forget(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            KnotChunkIndex.clear(level);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            ChainDeltaAccumulator.INSTANCE.flush();
+            FarChainSync.INSTANCE.tick(ServerLifecycleHooks.getCurrentServer());
+            NetworkStats.tickLog();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        NetworkStatsCommand.register(event.getDispatcher(), ConnectibleChains.MODID, 2);
+    }
 }
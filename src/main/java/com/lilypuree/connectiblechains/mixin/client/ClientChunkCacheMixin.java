@@ -0,0 +1,23 @@
+package com.lilypuree.connectiblechains.mixin.client;
+
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import net.minecraft.client.multiplayer.ClientChunkCache;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LightLayer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Forwards light changes of sections to the cached light of the chains.
+ * Called for light computed by the client and for light received from the server.
+ */
+@Mixin(ClientChunkCache.class)
+public class ClientChunkCacheMixin {
+
+    @Inject(method = "onLightUpdate", at = @At("TAIL"))
+    private void invalidateChainLight(LightLayer layer, SectionPos pos, CallbackInfo ci) {
+        ClientInitializer.chainLightCache.onLightUpdate(pos);
+    }
+}
@@ -0,0 +1,33 @@
+package com.lilypuree.connectiblechains.mixin.client;
+
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.math.Matrix4f;
+import net.minecraft.client.Camera;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.LightTexture;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Draws the section buffers of the chains right after the entities.
+ * Drawing them at the end of the frame would hide them behind water and glass,
+ * and with fabulous graphics the translucent layers are already composited by then.
+ *
+ * @see com.lilypuree.connectiblechains.client.render.entity.ChainSectionRenderer
+ */
+@Mixin(LevelRenderer.class)
+public class LevelRendererMixin {
+
+    @Inject(
+            method = "renderLevel",
+            at = @At(value = "INVOKE_STRING", target = "Lnet/minecraft/util/profiling/ProfilerFiller;popPush(Ljava/lang/String;)V", args = "ldc=blockentities")
+    )
+    private void renderChainSections(PoseStack poseStack, float partialTick, long finishNanoTime, boolean renderBlockOutline, Camera camera,
+                                     GameRenderer gameRenderer, LightTexture lightTexture, Matrix4f projectionMatrix, CallbackInfo ci) {
+        ClientInitializer.chainSectionRenderer.render(poseStack, projectionMatrix);
+    }
+}
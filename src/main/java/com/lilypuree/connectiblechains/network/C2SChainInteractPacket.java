@@ -0,0 +1,121 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.entity.ChainLinkEntity;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.InteractionResult;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Sent by clients that attack or use a link whose collision entities are not synced.
+ * It is the counterpart to {@link com.lilypuree.connectiblechains.entity.ChainCollisionEntity#hurt}
+ * and {@link com.lilypuree.connectiblechains.entity.ChainCollisionEntity#interact}.
+ */
+public class C2SChainInteractPacket {
+    /**
+     * Same as the limit in {@link net.minecraft.server.network.ServerGamePacketListenerImpl#handleInteract}
+     */
+    private static final double MAX_INTERACTION_DISTANCE_SQ = 6.0 * 6.0;
+
+    private int fromId, toId;
+    /**
+     * Where the client hit the link, only used to find the collider that plays the hit sound
+     */
+    private Vec3 location;
+    private boolean attack;
+    private InteractionHand hand;
+
+    public C2SChainInteractPacket(int fromId, int toId, Vec3 location, boolean attack, InteractionHand hand) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.location = location;
+        this.attack = attack;
+        this.hand = hand;
+    }
+
+    public C2SChainInteractPacket(FriendlyByteBuf buf) {
+        fromId = buf.readVarInt();
+        toId = buf.readVarInt();
+        location = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
+        attack = buf.readBoolean();
+        hand = buf.readEnum(InteractionHand.class);
+    }
+
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeVarInt(fromId);
+        buf.writeVarInt(toId);
+        buf.writeDouble(location.x);
+        buf.writeDouble(location.y);
+        buf.writeDouble(location.z);
+        buf.writeBoolean(attack);
+        buf.writeEnum(hand);
+    }
+
+    public boolean handle(Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            ServerPlayer player = ctx.get().getSender();
+            if (player == null || player.isSpectator()) return;
+            Entity from = player.level.getEntity(fromId);
+            if (!(from instanceof ChainKnotEntity knot)) return;
+
+            for (ChainLink link : knot.getLinks()) {
+                if (link.isDead() || link.primary != knot || link.secondary.getId() != toId) continue;
+                if (!isInReach(player, link)) return;
+                player.resetLastActionTime();
+
+                if (attack) {
+                    InteractionResult result = ChainLinkEntity.onDamageFrom(knot, DamageSource.playerAttack(player), getClosestCollider(link, location));
+                    if (result.consumesAction()) {
+                        link.destroy(result == InteractionResult.SUCCESS);
+                    }
+                } else if (ChainLinkEntity.canDestroyWith(player.getItemInHand(hand))) {
+                    link.destroy(!player.isCreative());
+                }
+                return;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * The client position is not trusted, it only selects one of the colliders that the server computed.
+     *
+     * @return The center of the collider that is closest to {@code location}
+     */
+    private static Vec3 getClosestCollider(ChainLink link, Vec3 location) {
+        Vec3 closest = link.primary.position();
+        double closestSq = Double.MAX_VALUE;
+        for (AABB box : link.getCollisionBoxes()) {
+            Vec3 center = box.getCenter();
+            double distanceSq = center.distanceToSqr(location);
+            if (distanceSq < closestSq) {
+                closestSq = distanceSq;
+                closest = center;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * @return true when any of the link's colliders is within the interaction distance of the player
+     */
+    private static boolean isInReach(ServerPlayer player, ChainLink link) {
+        Vec3 eye = player.getEyePosition();
+        for (AABB box : link.getCollisionBoxes()) {
+            double dx = Math.max(0, Math.max(box.minX - eye.x, eye.x - box.maxX));
+            double dy = Math.max(0, Math.max(box.minY - eye.y, eye.y - box.maxY));
+            double dz = Math.max(0, Math.max(box.minZ - eye.z, eye.z - box.maxZ));
+            if (dx * dx + dy * dy + dz * dz < MAX_INTERACTION_DISTANCE_SQ) return true;
+        }
+        return false;
+    }
+}
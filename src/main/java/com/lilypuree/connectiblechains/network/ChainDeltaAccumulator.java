@@ -0,0 +1,342 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.chain.ChainType;
+import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.util.TrackingHelper;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the changes to the chain graph that happen during a server tick and sends them as
+ * one {@link S2CChainDeltaPacket} per player at the end of the tick.
+ * A link that is attached and detached within the same tick is never sent.
+ * <p>
+ * Only players that track an affected entity receive a change. Players that are within half the tracking range
+ * of a change receive it at the end of the tick, all others receive their changes coalesced
+ * every {@link com.lilypuree.connectiblechains.CCConfig#getDistantUpdateInterval() few ticks}.
+ */
+public class ChainDeltaAccumulator {
+    public static final ChainDeltaAccumulator INSTANCE = new ChainDeltaAccumulator();
+
+    private final Map<ServerPlayer, Delta> deltas = new Reference2ObjectLinkedOpenHashMap<>();
+
+    /**
+     * Records the creation of {@code link} for all players that track either end.
+     */
+    public void attach(ChainLink link) {
+        TrackingHelper.forEachTrackingPlayer(link.primary, link.secondary,
+                player -> getDelta(player, link.primary).attach(link.primary.getId(), link.secondary.getId(), link.chainType));
+    }
+
+    /**
+     * Records the destruction of {@code link} for all players that track either end.
+     */
+    public void detach(ChainLink link) {
+        TrackingHelper.forEachTrackingPlayer(link.primary, link.secondary,
+                player -> getDelta(player, link.primary).detach(link.primary.getId(), link.secondary.getId()));
+    }
+
+    /**
+     * Records that the links from all {@code primaries} to {@code holder} were moved to {@code target},
+     * for all players that track any of the involved entities.
+     *
+     * @see ChainLink#relink(ChainLink, ChainKnotEntity)
+     */
+    public void relink(ChainKnotEntity target, Entity holder, List<ChainKnotEntity> primaries) {
+        Set<ServerPlayer> recipients = new ReferenceOpenHashSet<>();
+        TrackingHelper.forEachTrackingPlayer(target, holder, recipients::add);
+        for (ChainKnotEntity primary : primaries) {
+            TrackingHelper.forEachTrackingPlayer(primary, primary, recipients::add);
+        }
+
+        int[] primaryIds = new int[primaries.size()];
+        for (int i = 0; i < primaryIds.length; i++) {
+            primaryIds[i] = primaries.get(i).getId();
+        }
+        for (ServerPlayer player : recipients) {
+            getDelta(player, target).relink(target.getId(), holder.getId(), primaryIds);
+        }
+    }
+
+    /**
+     * Records a change of the knot's type for all players that track it.
+     */
+    public void changeType(ChainKnotEntity knot) {
+        TrackingHelper.forEachTrackingPlayer(knot, knot,
+                player -> getDelta(player, knot).changeType(knot.getId(), knot.getChainType()));
+    }
+
+    /**
+     * Drops the pending changes that involve the knot on either end for {@code player}, the client forgets the knot anyway.
+     * Called when the player stops tracking the knot.
+     */
+    public void forget(ServerPlayer player, int knotId) {
+        Delta delta = deltas.get(player);
+        if (delta != null) delta.forget(knotId);
+    }
+
+    /**
+     * Drops all pending changes of {@code player}.
+     * Called when the player respawns, the client receives the links of all tracked knots again with their spawn data.
+     * The old player entity is matched by its uuid.
+     */
+    public void forget(ServerPlayer player) {
+        deltas.keySet().removeIf(p -> p.getUUID().equals(player.getUUID()));
+    }
+
+    /**
+     * @param source The knot that changed, its distance to the player determines how soon the change is sent
+     */
+    private Delta getDelta(ServerPlayer player, ChainKnotEntity source) {
+        Delta delta = deltas.computeIfAbsent(player, p -> new Delta());
+        if (!delta.urgent) {
+            double nearRange = TrackingHelper.getTrackingRange(source) / 2.0;
+            delta.urgent = player.distanceToSqr(source) <= nearRange * nearRange;
+        }
+        return delta;
+    }
+
+    /**
+     * Sends all recorded changes that are due. Called at the end of every server tick.
+     */
+    public void flush() {
+        if (deltas.isEmpty()) return;
+        int interval = ConnectibleChains.runtimeConfig.getDistantUpdateInterval();
+        Iterator<Map.Entry<ServerPlayer, Delta>> iterator = deltas.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ServerPlayer, Delta> entry = iterator.next();
+            ServerPlayer player = entry.getKey();
+            Delta delta = entry.getValue();
+            if (!player.hasDisconnected() && !delta.urgent && ++delta.age < interval) continue;
+            if (!player.hasDisconnected() && !delta.isEmpty()) {
+                ModPacketHandler.sendToPlayer(player, delta.toPacket());
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * The pending changes for a single player.
+     * Relinks depend on the links that exist at the time, so the changes are split into segments that end with a relink.
+     * The client applies the segments in order, within a segment detaches come before attaches.
+     */
+    private static class Delta {
+        /**
+         * The segments in the order they were recorded, the last one receives new link changes.
+         */
+        private final List<Segment> segments = new ObjectArrayList<>();
+        /**
+         * Pending knot type changes, keyed by the knot id.
+         */
+        private final Int2ObjectLinkedOpenHashMap<ChainType> types = new Int2ObjectLinkedOpenHashMap<>();
+        /**
+         * Whether any change happened close to the player, in that case it is sent at the end of the tick.
+         */
+        private boolean urgent = false;
+        /**
+         * Ticks since the first change was recorded.
+         */
+        private int age = 0;
+
+        Delta() {
+            segments.add(new Segment());
+        }
+
+        private static long key(int fromId, int toId) {
+            return (long) fromId << 32 | (toId & 0xFFFFFFFFL);
+        }
+
+        private Segment current() {
+            return segments.get(segments.size() - 1);
+        }
+
+        void attach(int fromId, int toId, ChainType chainType) {
+            LinkChange change = current().links.computeIfAbsent(key(fromId, toId), k -> new LinkChange(fromId, toId));
+            change.attachType = chainType;
+        }
+
+        void detach(int fromId, int toId) {
+            current().detach(fromId, toId);
+        }
+
+        /**
+         * Links that were attached in the current segment are not known to the client yet,
+         * they are attached to the target directly instead of being relinked.
+         * Otherwise the relink ends the current segment, changes that are recorded later are applied after it.
+         */
+        void relink(int targetId, int holderId, int[] primaryIds) {
+            Long2ObjectLinkedOpenHashMap<LinkChange> links = current().links;
+            IntList relinked = new IntArrayList(primaryIds.length);
+            for (int primaryId : primaryIds) {
+                LinkChange change = links.get(key(primaryId, holderId));
+                if (change != null && change.attachType != null) {
+                    ChainType chainType = change.attachType;
+                    change.attachType = null;
+                    if (!change.detach) links.remove(key(primaryId, holderId));
+                    attach(primaryId, targetId, chainType);
+                } else {
+                    relinked.add(primaryId);
+                }
+            }
+            if (!relinked.isEmpty()) {
+                current().relink = new RelinkChange(targetId, holderId, relinked);
+                segments.add(new Segment());
+            }
+        }
+
+        void changeType(int knotId, ChainType chainType) {
+            types.put(knotId, chainType);
+        }
+
+        /**
+         * Drops all changes that involve the knot, the client can't apply them once it forgot the knot.
+         * A relink to the knot still has to remove the links from the holder, so it becomes a detach of these links.
+         */
+        void forget(int knotId) {
+            for (Segment segment : segments) {
+                segment.links.values().removeIf(change -> change.fromId == knotId || change.toId == knotId);
+                RelinkChange relink = segment.relink;
+                if (relink == null) continue;
+                relink.primaryIds.rem(knotId);
+                if (relink.targetId == knotId) {
+                    segment.relink = null;
+                    for (int primaryId : relink.primaryIds) {
+                        segment.detach(primaryId, relink.holderId);
+                    }
+                } else if (relink.primaryIds.isEmpty()) {
+                    segment.relink = null;
+                }
+            }
+            types.remove(knotId);
+        }
+
+        boolean isEmpty() {
+            if (!types.isEmpty()) return false;
+            for (Segment segment : segments) {
+                if (!segment.isEmpty()) return false;
+            }
+            return true;
+        }
+
+        S2CChainDeltaPacket toPacket() {
+            IntArrayList changes = new IntArrayList();
+            for (Segment segment : segments) {
+                if (segment.isEmpty()) continue;
+                segment.write(changes);
+            }
+
+            int[] typeKnots = new int[types.size()];
+            int[] knotTypes = new int[types.size()];
+            int t = 0;
+            for (Int2ObjectMap.Entry<ChainType> entry : types.int2ObjectEntrySet()) {
+                typeKnots[t] = entry.getIntKey();
+                knotTypes[t] = ChainTypesRegistry.getRawId(entry.getValue());
+                t++;
+            }
+
+            return new S2CChainDeltaPacket(changes.toIntArray(), typeKnots, knotTypes);
+        }
+    }
+
+    /**
+     * Link changes followed by an optional relink.
+     */
+    private static class Segment {
+        /**
+         * Pending link changes, keyed by the packed primary and secondary ids.
+         */
+        final Long2ObjectLinkedOpenHashMap<LinkChange> links = new Long2ObjectLinkedOpenHashMap<>();
+        @Nullable
+        RelinkChange relink;
+
+        boolean isEmpty() {
+            return links.isEmpty() && relink == null;
+        }
+
+        void detach(int fromId, int toId) {
+            long key = Delta.key(fromId, toId);
+            LinkChange change = links.get(key);
+            if (change == null) {
+                change = new LinkChange(fromId, toId);
+                change.detach = true;
+                links.put(key, change);
+            } else if (change.attachType != null) {
+                // The client has never seen the attachment
+                change.attachType = null;
+                if (!change.detach) links.remove(key);
+            } else {
+                change.detach = true;
+            }
+        }
+
+        /**
+         * @see S2CChainDeltaPacket#changes
+         */
+        void write(IntList changes) {
+            int detachCount = 0, attachCount = 0;
+            for (LinkChange change : links.values()) {
+                if (change.detach) detachCount++;
+                if (change.attachType != null) attachCount++;
+            }
+
+            changes.add(detachCount);
+            for (LinkChange change : links.values()) {
+                if (!change.detach) continue;
+                changes.add(change.fromId);
+                changes.add(change.toId);
+            }
+            changes.add(attachCount);
+            for (LinkChange change : links.values()) {
+                if (change.attachType == null) continue;
+                changes.add(change.fromId);
+                changes.add(change.toId);
+                changes.add(ChainTypesRegistry.getRawId(change.attachType));
+            }
+            if (relink == null) {
+                changes.add(0);
+            } else {
+                changes.add(relink.primaryIds.size());
+                changes.add(relink.targetId);
+                changes.add(relink.holderId);
+                changes.addAll(relink.primaryIds);
+            }
+        }
+    }
+
+    private record RelinkChange(int targetId, int holderId, IntList primaryIds) {
+    }
+
+    private static class LinkChange {
+        final int fromId, toId;
+        /**
+         * The link was removed, the client has to remove it first.
+         */
+        boolean detach;
+        /**
+         * The type of the link that was created, null if no link was created.
+         */
+        ChainType attachType;
+
+        LinkChange(int fromId, int toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.chain.ChainLink;
+import com.lilypuree.connectiblechains.chain.ChainTypesRegistry;
+import com.lilypuree.connectiblechains.chain.KnotChunkIndex;
+import com.lilypuree.connectiblechains.entity.ChainKnotEntity;
+import com.lilypuree.connectiblechains.util.TrackingHelper;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends the chains of knots that a player does not track, so that long chains stay visible beyond the tracking range.
+ * The chains are grouped by regions of {@link #REGION_SIZE} blocks and a region is only sent again when its content changed.
+ * <p>
+ * The clients only receive the end points and types, they don't know about the knot entities.
+ *
+ * @see com.lilypuree.connectiblechains.client.FarChainCache
+ */
+public class FarChainSync {
+    public static final FarChainSync INSTANCE = new FarChainSync();
+
+    public static final int REGION_SIZE = 64;
+    /**
+     * A segment consists of the primary x, y and z, the secondary x, y, z and the type id.
+     */
+    public static final int SEGMENT_SIZE = 7;
+    private static final int INTERVAL = 40;
+
+    /**
+     * Keyed by the player uuid, as a respawn replaces the player entity but keeps the client
+     */
+    private final Map<UUID, PlayerState> states = new Object2ObjectOpenHashMap<>();
+    private int ticks = 0;
+
+    public static long getRegion(BlockPos pos) {
+        return ChunkPos.asLong(Math.floorDiv(pos.getX(), REGION_SIZE), Math.floorDiv(pos.getZ(), REGION_SIZE));
+    }
+
+    public static int getRegionX(long region) {
+        return ChunkPos.getX(region);
+    }
+
+    public static int getRegionZ(long region) {
+        return ChunkPos.getZ(region);
+    }
+
+    /**
+     * Called at the end of every server tick, updates all players every {@link #INTERVAL} ticks.
+     */
+    public void tick(MinecraftServer server) {
+        if (++ticks < INTERVAL) return;
+        ticks = 0;
+        int distance = ConnectibleChains.runtimeConfig.getFarChainDistance();
+        if (distance <= 0) return;
+
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            update(player, distance);
+        }
+    }
+
+    private void update(ServerPlayer player, int distance) {
+        PlayerState state = states.get(player.getUUID());
+        boolean reset = false;
+        if (state == null || state.dimension != player.level.dimension()) {
+            reset = state != null;
+            state = new PlayerState(player.level.dimension());
+            states.put(player.getUUID(), state);
+        }
+
+        Long2ObjectMap<IntArrayList> regions = collect(player, distance);
+
+        Long2ObjectMap<int[]> changed = new Long2ObjectOpenHashMap<>();
+        for (Long2ObjectMap.Entry<IntArrayList> entry : regions.long2ObjectEntrySet()) {
+            int[] segments = entry.getValue().toIntArray();
+            long hash = hash(segments);
+            if (state.hashes.get(entry.getLongKey()) != hash) {
+                state.hashes.put(entry.getLongKey(), hash);
+                changed.put(entry.getLongKey(), segments);
+            }
+        }
+        // Regions that are empty, out of range or tracked now
+        LongIterator iterator = state.hashes.keySet().iterator();
+        while (iterator.hasNext()) {
+            long region = iterator.nextLong();
+            if (regions.containsKey(region)) continue;
+            changed.put(region, new int[0]);
+            iterator.remove();
+        }
+
+        if (changed.isEmpty() && !reset) return;
+        long[] keys = changed.keySet().toLongArray();
+        int[][] segments = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            segments[i] = changed.get(keys[i]);
+        }
+        ModPacketHandler.sendToPlayer(player, new S2CFarChainsPacket(reset, keys, segments));
+    }
+
+    /**
+     * Collects the links of all knots within {@code distance} that are not tracked by {@code player}.
+     */
+    private Long2ObjectMap<IntArrayList> collect(ServerPlayer player, int distance) {
+        Long2ObjectMap<IntArrayList> regions = new Long2ObjectOpenHashMap<>();
+        double maxDistanceSq = (double) distance * distance;
+        // Chunks that are further away than this can't contain knots within the distance
+        double maxChunkDistanceSq = (distance + 24.0) * (distance + 24.0);
+
+        for (Long2ObjectMap.Entry<List<ChainKnotEntity>> chunk : KnotChunkIndex.getChunks(player.level).long2ObjectEntrySet()) {
+            double chunkX = ChunkPos.getX(chunk.getLongKey()) * 16 + 8 - player.getX();
+            double chunkZ = ChunkPos.getZ(chunk.getLongKey()) * 16 + 8 - player.getZ();
+            if (chunkX * chunkX + chunkZ * chunkZ > maxChunkDistanceSq) continue;
+
+            for (ChainKnotEntity knot : chunk.getValue()) {
+                double dx = knot.getX() - player.getX(), dz = knot.getZ() - player.getZ();
+                if (dx * dx + dz * dz > maxDistanceSq) continue;
+                if (TrackingHelper.isTrackedBy(knot, player)) continue;
+                addSegments(regions, knot);
+            }
+        }
+        return regions;
+    }
+
+    private static void addSegments(Long2ObjectMap<IntArrayList> regions, ChainKnotEntity knot) {
+        BlockPos from = knot.getPos();
+        for (ChainLink link : knot.getLinks()) {
+            if (link.primary != knot || link.isDead() || !(link.secondary instanceof ChainKnotEntity secondary)) continue;
+            BlockPos to = secondary.getPos();
+            // Does not fit into the packet, can only happen with modified configs
+            if (Math.abs(to.getX() - from.getX()) > Byte.MAX_VALUE || Math.abs(to.getY() - from.getY()) > Byte.MAX_VALUE
+                    || Math.abs(to.getZ() - from.getZ()) > Byte.MAX_VALUE) continue;
+
+            IntArrayList segments = regions.computeIfAbsent(getRegion(from), r -> new IntArrayList());
+            segments.add(from.getX());
+            segments.add(from.getY());
+            segments.add(from.getZ());
+            segments.add(to.getX());
+            segments.add(to.getY());
+            segments.add(to.getZ());
+            segments.add(ChainTypesRegistry.getRawId(link.chainType));
+        }
+    }
+
+    private static long hash(int[] segments) {
+        long hash = 1;
+        for (int value : segments) {
+            hash = 31 * hash + value;
+        }
+        return hash;
+    }
+
+    /**
+     * Drops all state of {@code player}, the client clears its far chains as well.
+     * Called when the player logs out or respawns.
+     */
+    public void forget(ServerPlayer player) {
+        states.remove(player.getUUID());
+    }
+
+    private static class PlayerState {
+        final ResourceKey<Level> dimension;
+        /**
+         * The content hash of each region the player has received
+         */
+        final Long2LongMap hashes = new Long2LongOpenHashMap();
+
+        PlayerState(ResourceKey<Level> dimension) {
+            this.dimension = dimension;
+        }
+    }
+}
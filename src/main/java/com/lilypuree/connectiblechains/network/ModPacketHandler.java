@@ -2,13 +2,15 @@ package com.lilypuree.connectiblechains.network;
 
 import com.lilypuree.connectiblechains.ConnectibleChains;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
 
 public class ModPacketHandler {
 
     public static SimpleChannel INSTANCE;
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "10";
     private static int ID = 0;
 
     private static int nextID() {
@@ -22,29 +24,36 @@ public class ModPacketHandler {
                 PROTOCOL_VERSION::equals,
                 PROTOCOL_VERSION::equals);
 
-        INSTANCE.messageBuilder(S2CChainAttachPacket.class, nextID())
-                .encoder(S2CChainAttachPacket::toBytes)
-                .decoder(S2CChainAttachPacket::new)
-                .consumer(S2CChainAttachPacket::handle)
+        INSTANCE.messageBuilder(S2CChainDeltaPacket.class, nextID())
+                .encoder(NetworkStats.SENT.encoder(S2CChainDeltaPacket.class, S2CChainDeltaPacket::toBytes))
+                .decoder(NetworkStats.RECEIVED.decoder(S2CChainDeltaPacket.class, S2CChainDeltaPacket::new))
+                .consumer(S2CChainDeltaPacket::handle)
                 .add();
 
-        INSTANCE.messageBuilder(S2CChainDetachPacket.class, nextID())
-                .encoder(S2CChainDetachPacket::toBytes)
-                .decoder(S2CChainDetachPacket::new)
-                .consumer(S2CChainDetachPacket::handle)
+        INSTANCE.messageBuilder(S2CFarChainsPacket.class, nextID())
+                .encoder(NetworkStats.SENT.encoder(S2CFarChainsPacket.class, S2CFarChainsPacket::toBytes))
+                .decoder(NetworkStats.RECEIVED.decoder(S2CFarChainsPacket.class, S2CFarChainsPacket::new))
+                .consumer(S2CFarChainsPacket::handle)
                 .add();
 
-        INSTANCE.messageBuilder(S2CMultiChainAttachPacket.class, nextID())
-                .encoder(S2CMultiChainAttachPacket::toBytes)
-                .decoder(S2CMultiChainAttachPacket::new)
-                .consumer(S2CMultiChainAttachPacket::handle)
+        INSTANCE.messageBuilder(S2CConfigSyncPacket.class, nextID())
+                .encoder(NetworkStats.SENT.encoder(S2CConfigSyncPacket.class, S2CConfigSyncPacket::toBytes))
+                .decoder(NetworkStats.RECEIVED.decoder(S2CConfigSyncPacket.class, S2CConfigSyncPacket::new))
+                .consumer(S2CConfigSyncPacket::handle)
                 .add();
 
-        INSTANCE.messageBuilder(S2CKnotChangeTypePacket.class, nextID())
-                .encoder(S2CKnotChangeTypePacket::toBytes)
-                .decoder(S2CKnotChangeTypePacket::new)
-                .consumer(S2CKnotChangeTypePacket::handle)
+        INSTANCE.messageBuilder(C2SChainInteractPacket.class, nextID())
+                .encoder(NetworkStats.SENT.encoder(C2SChainInteractPacket.class, C2SChainInteractPacket::toBytes))
+                .decoder(NetworkStats.RECEIVED.decoder(C2SChainInteractPacket.class, C2SChainInteractPacket::new))
+                .consumer(C2SChainInteractPacket::handle)
                 .add();
+    }
+
+    public static void sendToPlayer(ServerPlayer player, Object message) {
+        INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), message);
+    }
 
+    public static void sendToServer(Object message) {
+        INSTANCE.sendToServer(message);
     }
 }
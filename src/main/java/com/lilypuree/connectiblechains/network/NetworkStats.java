@@ -0,0 +1,167 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import net.minecraft.network.FriendlyByteBuf;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Counts the messages and encoded bytes of every packet type registered in {@link ModPacketHandler}.
+ * Every message is encoded once per recipient, so the message count is also the number of recipients.
+ * The counters are per JVM, so in singleplayer the server and the client share them.
+ * Besides the totals, the last {@link #WINDOW_SECONDS} seconds are kept in one second buckets to calculate rates.
+ */
+public class NetworkStats {
+    public static final NetworkStats SENT = new NetworkStats("sent");
+    public static final NetworkStats RECEIVED = new NetworkStats("received");
+
+    public static final int WINDOW_SECONDS = 60;
+
+    private static int ticksSinceLog = 0;
+
+    public final String direction;
+    private final Map<Class<?>, PacketStats> stats = new ConcurrentHashMap<>();
+
+    private NetworkStats(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Wraps an encoder to count the written bytes.
+     */
+    public <T> BiConsumer<T, FriendlyByteBuf> encoder(Class<T> type, BiConsumer<T, FriendlyByteBuf> encoder) {
+        PacketStats packetStats = get(type);
+        return (message, buf) -> {
+            int start = buf.writerIndex();
+            encoder.accept(message, buf);
+            packetStats.record(buf.writerIndex() - start);
+        };
+    }
+
+    /**
+     * Wraps a decoder to count the read bytes.
+     */
+    public <T> Function<FriendlyByteBuf, T> decoder(Class<T> type, Function<FriendlyByteBuf, T> decoder) {
+        PacketStats packetStats = get(type);
+        return buf -> {
+            int start = buf.readerIndex();
+            T message = decoder.apply(buf);
+            packetStats.record(buf.readerIndex() - start);
+            return message;
+        };
+    }
+
+    private PacketStats get(Class<?> type) {
+        return stats.computeIfAbsent(type, t -> new PacketStats(t.getSimpleName()));
+    }
+
+    /**
+     * @return The stats of all packet types that have been used at least once, sorted by name.
+     */
+    public List<PacketStats> getUsed() {
+        List<PacketStats> result = new ArrayList<>();
+        for (PacketStats packetStats : stats.values()) {
+            if (packetStats.messages.sum() > 0) result.add(packetStats);
+        }
+        result.sort(Comparator.comparing(packetStats -> packetStats.name));
+        return result;
+    }
+
+    /**
+     * Logs the stats of both directions when the configured interval has passed.
+     * Should be called once per tick, by the server or, when connected to a remote server, by the client.
+     */
+    public static void tickLog() {
+        int interval = ConnectibleChains.runtimeConfig.getNetStatsLogInterval();
+        if (interval <= 0 || ++ticksSinceLog < interval * 20) return;
+        ticksSinceLog = 0;
+        int window = Math.min(interval, WINDOW_SECONDS);
+        SENT.log(window);
+        RECEIVED.log(window);
+    }
+
+    /**
+     * Logs the rates of all used packet types, one line per direction.
+     *
+     * @param seconds The window for the rates
+     */
+    public void log(int seconds) {
+        List<PacketStats> used = getUsed();
+        if (used.isEmpty()) return;
+        StringBuilder line = new StringBuilder("Chain packets ").append(direction)
+                .append(" (last ").append(seconds).append("s):");
+        for (PacketStats packetStats : used) {
+            line.append(' ').append(packetStats.name)
+                    .append(String.format(" %.1f msg/s %.0f B/s;", packetStats.getMessageRate(seconds), packetStats.getByteRate(seconds)));
+        }
+        ConnectibleChains.LOGGER.info(line);
+    }
+
+    public static class PacketStats {
+        public final String name;
+        public final LongAdder messages = new LongAdder();
+        public final LongAdder bytes = new LongAdder();
+
+        /**
+         * The second since epoch of each bucket, used to detect outdated buckets
+         */
+        private final long[] bucketSeconds = new long[WINDOW_SECONDS];
+        private final long[] bucketMessages = new long[WINDOW_SECONDS];
+        private final long[] bucketBytes = new long[WINDOW_SECONDS];
+
+        private PacketStats(String name) {
+            this.name = name;
+        }
+
+        private void record(int size) {
+            messages.increment();
+            bytes.add(size);
+
+            long second = System.currentTimeMillis() / 1000;
+            int bucket = (int) (second % WINDOW_SECONDS);
+            synchronized (this) {
+                if (bucketSeconds[bucket] != second) {
+                    bucketSeconds[bucket] = second;
+                    bucketMessages[bucket] = 0;
+                    bucketBytes[bucket] = 0;
+                }
+                bucketMessages[bucket]++;
+                bucketBytes[bucket] += size;
+            }
+        }
+
+        /**
+         * @param seconds The window size, at most {@link #WINDOW_SECONDS}
+         */
+        public double getMessageRate(int seconds) {
+            return sum(bucketMessages, seconds) / (double) seconds;
+        }
+
+        /**
+         * @param seconds The window size, at most {@link #WINDOW_SECONDS}
+         */
+        public double getByteRate(int seconds) {
+            return sum(bucketBytes, seconds) / (double) seconds;
+        }
+
+        /**
+         * Sums the buckets of the last {@code seconds} full seconds, excluding the current one.
+         */
+        private synchronized long sum(long[] buckets, int seconds) {
+            long now = System.currentTimeMillis() / 1000;
+            long total = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                long age = now - bucketSeconds[i];
+                if (age >= 1 && age <= seconds) total += buckets[i];
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+/**
+ * {@code /<root> netstats} prints the {@link NetworkStats} of this side.
+ * It is registered on the server as {@code /connectiblechains} and on the client as {@code /connectiblechainsclient}.
+ */
+public class NetworkStatsCommand {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher, String root, int permission) {
+        dispatcher.register(Commands.literal(root)
+                .requires(source -> source.hasPermission(permission))
+                .then(Commands.literal("netstats").executes(context -> {
+                    CommandSourceStack source = context.getSource();
+                    int lines = print(source, NetworkStats.SENT) + print(source, NetworkStats.RECEIVED);
+                    if (lines == 0) {
+                        source.sendSuccess(new TextComponent("No chain packets yet"), false);
+                    }
+                    return lines;
+                })));
+    }
+
+    private static int print(CommandSourceStack source, NetworkStats stats) {
+        int lines = 0;
+        for (NetworkStats.PacketStats packetStats : stats.getUsed()) {
+            source.sendSuccess(new TextComponent(String.format(
+                    "%s %s: %d msgs, %d bytes | 10s: %.1f msg/s %.0f B/s | 60s: %.1f msg/s %.0f B/s",
+                    stats.direction, packetStats.name,
+                    packetStats.messages.sum(), packetStats.bytes.sum(),
+                    packetStats.getMessageRate(10), packetStats.getByteRate(10),
+                    packetStats.getMessageRate(60), packetStats.getByteRate(60)
+            )), false);
+            lines++;
+        }
+        return lines;
+    }
+}
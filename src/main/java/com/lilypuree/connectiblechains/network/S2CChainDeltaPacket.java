@@ -0,0 +1,83 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * All changes to the chain graph that a player received during one server tick.
+ * The link changes are applied in the order the server recorded them, knot type changes come last.
+ *
+ * @see ChainDeltaAccumulator
+ */
+public class S2CChainDeltaPacket {
+    /**
+     * A sequence of segments. Each segment consists of
+     * <ul>
+     * <li>the detach count followed by pairs of primary and secondary ids</li>
+     * <li>the attach count followed by triples of primary id, secondary id and type id</li>
+     * <li>the relink primary count, when it is not 0 followed by the target id, holder id and the primary ids</li>
+     * </ul>
+     *
+     * @see ChainDeltaAccumulator#relink
+     */
+    private int[] changes;
+    private int[] typeKnots;
+    private int[] knotTypes;
+
+    public S2CChainDeltaPacket(int[] changes, int[] typeKnots, int[] knotTypes) {
+        this.changes = changes;
+        this.typeKnots = typeKnots;
+        this.knotTypes = knotTypes;
+    }
+
+    public S2CChainDeltaPacket(FriendlyByteBuf buf) {
+        changes = buf.readVarIntArray();
+
+        typeKnots = new int[buf.readVarInt()];
+        knotTypes = new int[typeKnots.length];
+        for (int i = 0; i < typeKnots.length; i++) {
+            typeKnots[i] = buf.readVarInt();
+            knotTypes[i] = buf.readVarInt();
+        }
+    }
+
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeVarIntArray(changes);
+
+        buf.writeVarInt(typeKnots.length);
+        for (int i = 0; i < typeKnots.length; i++) {
+            buf.writeVarInt(typeKnots[i]);
+            buf.writeVarInt(knotTypes[i]);
+        }
+    }
+
+    public boolean handle(Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            int i = 0;
+            while (i < changes.length) {
+                int detachEnd = i + 1 + changes[i] * 2;
+                for (i++; i < detachEnd; i += 2) {
+                    ClientInitializer.chainPacketHandler.removeLink(changes[i], changes[i + 1]);
+                }
+                int attachEnd = i + 1 + changes[i] * 3;
+                for (i++; i < attachEnd; i += 3) {
+                    ClientInitializer.chainPacketHandler.createLinks(changes[i], new int[]{changes[i + 1]}, new int[]{changes[i + 2]});
+                }
+                int primaryCount = changes[i++];
+                if (primaryCount > 0) {
+                    int[] primaryIds = Arrays.copyOfRange(changes, i + 2, i + 2 + primaryCount);
+                    ClientInitializer.chainPacketHandler.relink(changes[i], changes[i + 1], primaryIds);
+                    i += 2 + primaryCount;
+                }
+            }
+            for (int t = 0; t < typeKnots.length; t++) {
+                ClientInitializer.chainPacketHandler.changeKnotType(typeKnots[t], knotTypes[t]);
+            }
+        });
+        return true;
+    }
+}
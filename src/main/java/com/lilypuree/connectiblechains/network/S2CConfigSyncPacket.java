@@ -0,0 +1,49 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.ConnectibleChains;
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends the server values of the options that decide the chain geometry and the collider mode.
+ * Sent when a player joins and when the server config is reloaded.
+ *
+ * @see com.lilypuree.connectiblechains.CCConfig#setServerValues
+ */
+public class S2CConfigSyncPacket {
+    private float chainHangAmount;
+    private boolean syncCollisionEntities;
+
+    public S2CConfigSyncPacket(float chainHangAmount, boolean syncCollisionEntities) {
+        this.chainHangAmount = chainHangAmount;
+        this.syncCollisionEntities = syncCollisionEntities;
+    }
+
+    public S2CConfigSyncPacket(FriendlyByteBuf buf) {
+        chainHangAmount = buf.readFloat();
+        syncCollisionEntities = buf.readBoolean();
+    }
+
+    /**
+     * @return A packet with the current values of this server
+     */
+    public static S2CConfigSyncPacket create() {
+        return new S2CConfigSyncPacket(ConnectibleChains.runtimeConfig.getChainHangAmount(),
+                ConnectibleChains.runtimeConfig.doSyncCollisionEntities());
+    }
+
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeFloat(chainHangAmount);
+        buf.writeBoolean(syncCollisionEntities);
+    }
+
+    public boolean handle(Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            ClientInitializer.onServerConfig(chainHangAmount, syncCollisionEntities);
+        });
+        return true;
+    }
+}
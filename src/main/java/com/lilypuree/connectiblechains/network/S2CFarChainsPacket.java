@@ -0,0 +1,84 @@
+package com.lilypuree.connectiblechains.network;
+
+import com.lilypuree.connectiblechains.client.ClientInitializer;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Replaces the far chains of some regions.
+ * A region without segments is removed from the client.
+ * <p>
+ * Each segment is written relative to the region origin: x and z as bytes, y as short,
+ * followed by the offset to the secondary as three bytes and the type id.
+ *
+ * @see FarChainSync
+ */
+public class S2CFarChainsPacket {
+    /**
+     * Whether the client should drop all far chains before applying this packet, for example after changing dimensions
+     */
+    private boolean reset;
+    private long[] regions;
+    /**
+     * Segments of each region, see {@link FarChainSync#SEGMENT_SIZE} for the layout
+     */
+    private int[][] segments;
+
+    public S2CFarChainsPacket(boolean reset, long[] regions, int[][] segments) {
+        this.reset = reset;
+        this.regions = regions;
+        this.segments = segments;
+    }
+
+    public S2CFarChainsPacket(FriendlyByteBuf buf) {
+        reset = buf.readBoolean();
+        regions = new long[buf.readVarInt()];
+        segments = new int[regions.length][];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = buf.readLong();
+            int originX = FarChainSync.getRegionX(regions[i]) * FarChainSync.REGION_SIZE;
+            int originZ = FarChainSync.getRegionZ(regions[i]) * FarChainSync.REGION_SIZE;
+            int[] region = new int[buf.readVarInt() * FarChainSync.SEGMENT_SIZE];
+            for (int s = 0; s < region.length; s += FarChainSync.SEGMENT_SIZE) {
+                region[s] = originX + buf.readUnsignedByte();
+                region[s + 1] = buf.readShort();
+                region[s + 2] = originZ + buf.readUnsignedByte();
+                region[s + 3] = region[s] + buf.readByte();
+                region[s + 4] = region[s + 1] + buf.readByte();
+                region[s + 5] = region[s + 2] + buf.readByte();
+                region[s + 6] = buf.readVarInt();
+            }
+            segments[i] = region;
+        }
+    }
+
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeBoolean(reset);
+        buf.writeVarInt(regions.length);
+        for (int i = 0; i < regions.length; i++) {
+            buf.writeLong(regions[i]);
+            int originX = FarChainSync.getRegionX(regions[i]) * FarChainSync.REGION_SIZE;
+            int originZ = FarChainSync.getRegionZ(regions[i]) * FarChainSync.REGION_SIZE;
+            int[] region = segments[i];
+            buf.writeVarInt(region.length / FarChainSync.SEGMENT_SIZE);
+            for (int s = 0; s < region.length; s += FarChainSync.SEGMENT_SIZE) {
+                buf.writeByte(region[s] - originX);
+                buf.writeShort(region[s + 1]);
+                buf.writeByte(region[s + 2] - originZ);
+                buf.writeByte(region[s + 3] - region[s]);
+                buf.writeByte(region[s + 4] - region[s + 1]);
+                buf.writeByte(region[s + 5] - region[s + 2]);
+                buf.writeVarInt(region[s + 6]);
+            }
+        }
+    }
+
+    public boolean handle(Supplier<NetworkEvent.Context> ctx) {
+        ctx.get().enqueueWork(() -> {
+            ClientInitializer.farChainCache.apply(reset, regions, segments);
+        });
+        return true;
+    }
+}
@@ -55,6 +55,21 @@ public class Helper {
         return Math.sinh((2 * x + 2 * p1 - d) / (2 * a));
     }
 
+    /**
+     * The lowest point of drip2 between 0 and d, where drip2prime is zero
+     * or one of the ends if the chain is too steep to sag below them.
+     *
+     * @param d length of the chain
+     * @param h height at x=d
+     * @return the lowest y, never above 0 or h
+     */
+    public static double drip2Min(double d, double h) {
+        double a = ConnectibleChains.runtimeConfig.getChainHangAmount();
+        double p1 = a * asinh((h / (2D * a)) * (1D / Math.sinh(d / (2D * a))));
+        double x = Math.max(0, Math.min(d, d / 2D - p1));
+        return Math.min(drip2(x, d, h), Math.min(0, h));
+    }
+
     private static double asinh(double x) {
         return Math.log(x + Math.sqrt(x * x + 1.0));
     }
@@ -0,0 +1,89 @@
+package com.lilypuree.connectiblechains.util;
+
+import com.lilypuree.connectiblechains.mixin.server.world.ChunkMapAccessor;
+import com.lilypuree.connectiblechains.mixin.server.world.TrackedEntityAccessor;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkMap;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerPlayerConnection;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Queries the entity tracker of the {@link ChunkMap} to find the players that an entity is sent to.
+ */
+public class TrackingHelper {
+
+    /**
+     * @param entity An entity in a server level
+     * @return The connections of all players that track {@code entity} or null if it is not tracked.
+     */
+    @Nullable
+    public static Set<ServerPlayerConnection> getSeenBy(Entity entity) {
+        if (!(entity.level instanceof ServerLevel level)) return null;
+        ChunkMap chunkMap = level.getChunkSource().chunkMap;
+        ChunkMap.TrackedEntity tracker = ((ChunkMapAccessor) chunkMap).getEntityMap().get(entity.getId());
+        if (tracker == null) return null;
+        return ((TrackedEntityAccessor) tracker).getSeenBy();
+    }
+
+    /**
+     * The distance up to which {@code entity} is tracked,
+     * same as {@code ChunkMap.TrackedEntity#updatePlayer}.
+     *
+     * @param entity An entity in a server level
+     * @return The tracking range in blocks
+     */
+    public static int getTrackingRange(Entity entity) {
+        if (!(entity.level instanceof ServerLevel level)) return 0;
+        MinecraftServer server = level.getServer();
+        int range = server.getScaledTrackingDistance(entity.getType().clientTrackingRange() * 16);
+        return Math.min(range, (server.getPlayerList().getViewDistance() - 1) * 16);
+    }
+
+    /**
+     * @return true when {@code player} tracks {@code entity} or is {@code entity}.
+     */
+    public static boolean isTrackedBy(Entity entity, ServerPlayer player) {
+        if (entity == player) return true;
+        Set<ServerPlayerConnection> seenBy = getSeenBy(entity);
+        return seenBy != null && seenBy.contains(player.connection);
+    }
+
+    /**
+     * Calls {@code action} once for every player that tracks {@code a} or {@code b}.
+     * Players are not tracked by themselves, so when {@code a} or {@code b} is a player, it is included as well.
+     * Duplicates are skipped by checking the tracker sets instead of collecting the players.
+     *
+     * @param a      The first entity
+     * @param b      The second entity
+     * @param action The action to perform for each player
+     */
+    public static void forEachTrackingPlayer(Entity a, Entity b, Consumer<ServerPlayer> action) {
+        Set<ServerPlayerConnection> seenByA = getSeenBy(a);
+        Set<ServerPlayerConnection> seenByB = getSeenBy(b);
+
+        if (seenByA != null) {
+            for (ServerPlayerConnection connection : seenByA) {
+                action.accept(connection.getPlayer());
+            }
+        }
+        if (seenByB != null) {
+            for (ServerPlayerConnection connection : seenByB) {
+                if (seenByA != null && seenByA.contains(connection)) continue;
+                action.accept(connection.getPlayer());
+            }
+        }
+
+        if (a instanceof ServerPlayer player && !(seenByB != null && seenByB.contains(player.connection))) {
+            action.accept(player);
+        }
+        if (b instanceof ServerPlayer player && b != a && !(seenByA != null && seenByA.contains(player.connection))) {
+            action.accept(player);
+        }
+    }
+}